@@ -0,0 +1,152 @@
+package com.gardiyan.oms.cache;
+
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Customer rows keyed by id and by normalized email. Misses are cached too, for {@code negative-ttl}, so
+ * repeated lookups of an unknown id or address do not reach the database either. Entries are dropped when a
+ * {@link CustomerChangedEvent} completes, and the most recent {@code warmup-size} customers are loaded once the
+ * application is ready.
+ */
+@Slf4j
+@Component
+public class CustomerCache {
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int warmupSize;
+    private final Cache<UUID, Optional<CustomerView>> byId;
+    private final Cache<String, Optional<UUID>> byEmail;
+
+    public CustomerCache(CustomerRepository customerRepository,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${oms.cache.customers.max-size:100000}") long maxSize,
+                         @Value("${oms.cache.customers.ttl:PT30M}") Duration ttl,
+                         @Value("${oms.cache.customers.negative-ttl:PT30S}") Duration negativeTtl,
+                         @Value("${oms.cache.customers.warmup-size:0}") int warmupSize) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.warmupSize = warmupSize;
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(CustomerCache.<UUID, CustomerView>expiry(ttl, negativeTtl))
+            .recordStats()
+            .build();
+        this.byEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(CustomerCache.<String, UUID>expiry(ttl, negativeTtl))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "customers");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "customers-by-email");
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<CustomerView> get(UUID id) {
+        return id == null ? Optional.empty() : byId.get(id, customerRepository::findViewById);
+    }
+
+    public boolean exists(UUID id) {
+        return get(id).isPresent();
+    }
+
+    public Optional<CustomerView> getByEmail(String email) {
+        String key = normalizeEmail(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return byEmail.get(key, this::loadByEmail)
+            .flatMap(this::get)
+            .filter(view -> key.equals(normalizeEmail(view.email())));
+    }
+
+    // Dropped once when the change is made and again when its transaction ends, since a loader may have read
+    // the old row in between
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        invalidate(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onCustomerChangeCompleted(CustomerChangedEvent event) {
+        invalidate(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmupSize <= 0) {
+            return;
+        }
+        // Runs outside any request, so it opens its own read-only transaction for the query
+        List<CustomerView> recent = readOnlyTransaction.execute(status ->
+            customerRepository.findViews(null, Sort.by(Sort.Order.desc("createdAt")), warmupSize));
+        recent.forEach(this::put);
+        log.info("Warmed customer cache with {} customers", recent.size());
+    }
+
+    private void invalidate(CustomerChangedEvent event) {
+        byId.invalidate(event.customerId());
+        byEmail.invalidateAll(event.emails());
+    }
+
+    // Runs inside byEmail.get, so it must not write byEmail itself: Caffeine rejects that as a recursive update
+    private Optional<UUID> loadByEmail(String email) {
+        Optional<CustomerView> view = customerRepository.findViewByEmail(email);
+        view.ifPresent(found -> byId.put(found.id(), Optional.of(found)));
+        return view.map(CustomerView::id);
+    }
+
+    private void put(CustomerView view) {
+        byId.put(view.id(), Optional.of(view));
+        byEmail.put(normalizeEmail(view.email()), Optional.of(view.id()));
+    }
+
+    // Misses are kept for a shorter time than hits, bounding how long a lookup can disagree with a new row
+    // that was written outside the services
+    private static <K, V> Expiry<K, Optional<V>> expiry(Duration ttl, Duration negativeTtl) {
+        long hitNanos = ttl.toNanos();
+        long missNanos = negativeTtl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                return value.isPresent() ? hitNanos : missNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.gardiyan.oms.cache;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of product rows, bounded by size (W-TinyLFU eviction) and by {@code ttl}. Entries are
+ * dropped when a {@link ProductChangedEvent} completes. Display reads additionally reload an entry whose
+ * stock snapshot is older than {@code stock-staleness}; the order path only takes catalog data from here and
+ * always checks stock against the database.
+ *
+ * <p>Display reads made inside a read-write transaction bypass the cache, so a service that has just changed a
+ * product reads its own write rather than an entry that is only invalidated once the transaction ends.
+ */
+@Component
+public class ProductCache {
+    private final ProductRepository productRepository;
+    private final long stockStalenessNanos;
+    private final Cache<UUID, Entry> cache;
+
+    public ProductCache(ProductRepository productRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${oms.cache.products.max-size:10000}") long maxSize,
+                        @Value("${oms.cache.products.ttl:PT10M}") Duration ttl,
+                        @Value("${oms.cache.products.stock-staleness:PT1S}") Duration stockStaleness) {
+        this.productRepository = productRepository;
+        this.stockStalenessNanos = stockStaleness.toNanos();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * For display reads: the returned stock is at most {@code stock-staleness} old.
+     */
+    public Optional<ProductView> get(UUID id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return productRepository.findViewById(id);
+        }
+
+        Entry entry = cache.get(id, this::load);
+        if (entry != null && isStale(entry)) {
+            entry = cache.asMap().compute(id, (key, current) -> current == null || isStale(current) ? load(key) : current);
+        }
+        return Optional.ofNullable(entry).map(Entry::view);
+    }
+
+    /**
+     * Catalog data (name, price) for the given ids, loading the misses in one query. Unknown ids are absent
+     * from the result. Stock in the returned views may be up to {@code ttl} old and must not be relied on.
+     */
+    public Map<UUID, ProductView> getCatalog(Collection<UUID> ids) {
+        return cache.getAll(ids, this::loadAll).values().stream()
+            .collect(Collectors.toMap(entry -> entry.view().id(), Entry::view));
+    }
+
+    public void invalidate(Collection<UUID> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    // Dropped once when the change is made and again when its transaction ends, since a loader may have read
+    // the old row in between; after completion rather than after commit because a rollback can race the same way
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.productIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onProductChangeCompleted(ProductChangedEvent event) {
+        invalidate(event.productIds());
+    }
+
+    private boolean isStale(Entry entry) {
+        return System.nanoTime() - entry.loadedAt() > stockStalenessNanos;
+    }
+
+    private Entry load(UUID id) {
+        return productRepository.findViewById(id)
+            .map(view -> new Entry(view, System.nanoTime()))
+            .orElse(null);
+    }
+
+    private Map<UUID, Entry> loadAll(Set<? extends UUID> ids) {
+        Specification<Product> byIds = (root, query, cb) -> root.get("id").in(ids);
+        long loadedAt = System.nanoTime();
+        return productRepository.findViews(byIds, Sort.unsorted(), ids.size()).stream()
+            .collect(Collectors.toMap(ProductView::id, view -> new Entry(view, loadedAt), (a, b) -> a));
+    }
+
+    private record Entry(ProductView view, long loadedAt) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.gardiyan.oms.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON, plain and gzipped, for single products and pages of {@code /api/products/in-stock}, so a hit
+ * is written out without building a DTO or running Jackson. A {@link ProductChangedEvent} drops the product's
+ * entry and every cached page, since any change can move a product onto or off a page.
+ *
+ * <p>Stock kept by the in-memory ledger changes without an event, so entries also expire after {@code ttl},
+ * which defaults to the product cache's {@code stock-staleness}.
+ */
+@Component
+@ConditionalOnProperty(name = "oms.cache.product-responses.enabled", havingValue = "true")
+public class ProductResponseCache {
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, SerializedResponse> products;
+    private final Cache<PageKey, SerializedResponse> inStockPages;
+
+    public ProductResponseCache(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${oms.cache.product-responses.max-size:10000}") long maxSize,
+                                @Value("${oms.cache.product-responses.ttl:${oms.cache.products.stock-staleness:PT1S}}")
+                                Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.products = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.inStockPages = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product-responses");
+        CaffeineCacheMetrics.monitor(meterRegistry, inStockPages, "product-page-responses");
+    }
+
+    public SerializedResponse product(UUID id, Supplier<ProductDTO> loader, Function<ProductDTO, String> etag) {
+        return products.get(id, key -> serialize(loader.get(), etag));
+    }
+
+    public SerializedResponse inStock(CursorRequest page, Supplier<CursorPage<ProductDTO>> loader,
+                                      Function<CursorPage<ProductDTO>, String> etag) {
+        PageKey key = new PageKey(page.getCursor(), page.getSize(), page.isCount());
+        return inStockPages.get(key, ignored -> serialize(loader.get(), etag));
+    }
+
+    // Dropped at the change and again when its transaction ends, for the same reason as in ProductCache
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onProductChangeCompleted(ProductChangedEvent event) {
+        invalidate(event);
+    }
+
+    private void invalidate(ProductChangedEvent event) {
+        products.invalidateAll(event.productIds());
+        inStockPages.invalidateAll();
+    }
+
+    private <T> SerializedResponse serialize(T body, Function<T, String> etag) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new SerializedResponse(etag.apply(body), json, gzip(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product response", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    public record SerializedResponse(String etag, byte[] json, byte[] gzip) {
+
+        // The gzipped bytes are a different representation, so a strong validator must tell them apart
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        // gzip is acceptable when listed, or covered by *, with a non-zero q-value; q=0 means "not this one"
+        public static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            Double gzip = null;
+            Double any = null;
+            for (String coding : acceptEncoding.split(",")) {
+                String[] params = coding.split(";");
+                String name = params[0].trim().toLowerCase(Locale.ROOT);
+                double q = 1;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                        q = qValue(param.substring(2).trim());
+                    }
+                }
+                if (name.equals("gzip") || name.equals("x-gzip")) {
+                    gzip = q;
+                } else if (name.equals("*")) {
+                    any = q;
+                }
+            }
+            double q = gzip != null ? gzip : any != null ? any : 0;
+            return q > 0;
+        }
+
+        // A malformed q-value is treated as not acceptable rather than guessed at
+        private static double qValue(String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException ex) {
+                return 0;
+            }
+        }
+    }
+
+    private record PageKey(String cursor, int size, boolean count) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.gardiyan.oms.cache;
+
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.event.OrderChangedEvent;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Pages of search results, keyed by the search, its normalized arguments and the version of every table the
+ * search reads. A table's version is bumped once a transaction that changed it completes, so invalidating every
+ * search over it is one increment: entries stored under an older version are never asked for again and are
+ * evicted as they go cold. Products are bumped again when the text index makes changes searchable, since text
+ * searches see them only then. Bounded to {@code max-rows} result rows in total (W-TinyLFU eviction) and by
+ * {@code ttl}; hits, misses and evictions are published under {@code cache.*} with {@code cache=search-results}.
+ *
+ * <p>Searches inside a read-write transaction bypass the cache, so they see the transaction's own writes. Cached
+ * pages are shared between callers and must not be modified.
+ */
+@Component
+@ConditionalOnProperty(name = "oms.cache.search-results.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchResultCache {
+    private final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+    private final Cache<Key, CursorPage<?>> cache;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             ObjectProvider<ProductSearchIndex> productSearchIndex,
+                             @Value("${oms.cache.search-results.max-rows:100000}") long maxRows,
+                             @Value("${oms.cache.search-results.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxRows)
+            .weigher((Key key, CursorPage<?> page) -> page.getItems().size() + 1)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search-results");
+        productSearchIndex.ifAvailable(index -> index.onRefresh(() -> bump(Table.PRODUCTS)));
+    }
+
+    /**
+     * The cached result of {@code search} with these arguments, running it on a miss. {@code arguments} must
+     * define equals; amounts go through {@link #normalize} so that equal filters share an entry.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends CursorPage<?>> T get(Set<Table> reads, String search, List<?> arguments, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        // Versions are read before the search runs, so rows it reads are never older than the versions it is keyed by
+        long[] seen = new long[Table.values().length];
+        for (Table table : reads) {
+            seen[table.ordinal()] = versions.get(table.ordinal());
+        }
+        return (T) cache.get(new Key(search, arguments, seen), ignored -> loader.get());
+    }
+
+    // After completion, so a search that read the rows before the change committed is keyed by the old version
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(Table.PRODUCTS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        bump(Table.CUSTOMERS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        bump(Table.ORDERS);
+    }
+
+    private void bump(Table table) {
+        versions.incrementAndGet(table.ordinal());
+    }
+
+    // 50 and 50.00 filter alike but are not equal as BigDecimals
+    public static BigDecimal normalize(BigDecimal amount) {
+        return amount == null ? null : amount.stripTrailingZeros();
+    }
+
+    public enum Table {
+        PRODUCTS, CUSTOMERS, ORDERS
+    }
+
+    private record Key(String search, List<?> arguments, long[] versions) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && search.equals(key.search) && arguments.equals(key.arguments)
+                && Arrays.equals(versions, key.versions);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * search.hashCode() + arguments.hashCode()) + Arrays.hashCode(versions);
+        }
+    }
+}
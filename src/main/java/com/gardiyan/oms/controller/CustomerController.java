@@ -1,7 +1,9 @@
 package com.gardiyan.oms.controller;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
 import com.gardiyan.oms.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,7 +14,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -31,13 +32,14 @@ public class CustomerController {
     @GetMapping("/{id}")
     @Operation(summary = "Get a customer by ID")
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable UUID id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+        CustomerDTO customer = customerService.getCustomerById(id);
+        return ResponseEntity.ok().eTag(ETags.of(customer.getVersion())).body(customer);
     }
 
     @GetMapping
     @Operation(summary = "Get all customers")
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<CursorPage<CustomerDTO>> getAllCustomers(CursorRequest page) {
+        return ETags.ok(customerService.getAllCustomers(page), CustomerController::version);
     }
 
     @PutMapping("/{id}")
@@ -55,10 +57,15 @@ public class CustomerController {
 
     @GetMapping("/search")
     @Operation(summary = "Search customers")
-    public ResponseEntity<List<CustomerDTO>> searchCustomers(
+    public ResponseEntity<CursorPage<CustomerDTO>> searchCustomers(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String phone) {
-        return ResponseEntity.ok(customerService.searchCustomers(name, email, phone));
+            @RequestParam(required = false) String phone,
+            CursorRequest page) {
+        return ETags.ok(customerService.searchCustomers(name, email, phone, page), CustomerController::version);
+    }
+
+    private static String version(CustomerDTO customer) {
+        return customer.getId() + ":" + customer.getVersion();
     }
 } 
\ No newline at end of file
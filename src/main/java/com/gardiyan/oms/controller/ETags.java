@@ -0,0 +1,40 @@
+package com.gardiyan.oms.controller;
+
+import com.gardiyan.oms.dto.response.CursorPage;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Strong validators built from entity versions. A 200 ResponseEntity carrying an ETag is answered with 304 by
+// Spring MVC when If-None-Match matches, before the body is serialized.
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Object... parts) {
+        return Stream.of(parts).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    // A page changes when any item's version changes, or the page boundary, total or anything reported
+    // alongside the page (such as facet counts) does
+    static <T> String of(CursorPage<T> page, Function<T, String> itemVersion, Object... extras) {
+        StringBuilder versions = new StringBuilder();
+        page.getItems().forEach(item -> versions.append(itemVersion.apply(item)).append(','));
+        versions.append(Objects.toString(page.getNextCursor(), "")).append(',')
+            .append(Objects.toString(page.getTotalCount(), ""));
+        for (Object extra : extras) {
+            versions.append(',').append(Objects.toString(extra, ""));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static <T> ResponseEntity<CursorPage<T>> ok(CursorPage<T> page, Function<T, String> itemVersion) {
+        return ResponseEntity.ok().eTag(of(page, itemVersion)).body(page);
+    }
+}
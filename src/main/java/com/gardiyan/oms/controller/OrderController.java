@@ -1,45 +1,180 @@
 package com.gardiyan.oms.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.dto.response.order.OrderItemDTO;
+import com.gardiyan.oms.dto.response.order.ReservationDTO;
+import com.gardiyan.oms.service.IdempotentOrderService;
 import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.ReservationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    static final String NDJSON = "application/x-ndjson";
+    private static final String CSV_HEADER =
+        "order_id,customer_id,total_amount,created_at,item_id,product_id,quantity,price,item_total_price\n";
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     private final OrderService orderService;
+    private final ReservationService reservationService;
+    private final IdempotentOrderService idempotentOrderService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    // A full history download outlasts the global async timeout; zero lets it run until done
+    @Value("${oms.orders.export.timeout:PT1H}")
+    private Duration exportTimeout;
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderCreateRequest request) {
-        return new ResponseEntity<>(orderService.createOrder(request), HttpStatus.CREATED);
+    public ResponseEntity<OrderDTO> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderCreateRequest request) {
+        if (idempotencyKey == null) {
+            return new ResponseEntity<>(orderService.createOrder(request), HttpStatus.CREATED);
+        }
+        return new ResponseEntity<>(idempotentOrderService.createOrder(idempotencyKey, request), HttpStatus.CREATED);
+    }
+
+    // One order per input line, one result per output line; only a single chunk is held in memory
+    @PostMapping(value = "/batch", consumes = NDJSON, produces = NDJSON)
+    public void createOrdersBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+
+        List<OrderCreateRequest> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(BATCH_CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                OrderCreateRequest order = objectMapper.readValue(line, OrderCreateRequest.class);
+                if (order == null) {
+                    writeResult(out, lineNumber, OrderBatchResult.failed("Malformed order: expected an object"));
+                    continue;
+                }
+                // Lines are checked against the same constraints @Valid applies to a single order
+                Set<ConstraintViolation<OrderCreateRequest>> violations = validator.validate(order);
+                if (!violations.isEmpty()) {
+                    writeResult(out, lineNumber, OrderBatchResult.failed(validationError(violations)));
+                    continue;
+                }
+                chunk.add(order);
+                chunkLines.add(lineNumber);
+            } catch (JsonProcessingException ex) {
+                writeResult(out, lineNumber, OrderBatchResult.failed("Malformed order: " + ex.getOriginalMessage()));
+            }
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                writeChunk(out, chunk, chunkLines);
+            }
+        }
+        writeChunk(out, chunk, chunkLines);
+    }
+
+    private void writeChunk(OutputStream out, List<OrderCreateRequest> chunk, List<Long> chunkLines) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<OrderBatchResult> results;
+        try {
+            // A copy, since the chunk is cleared and refilled once its results are written
+            results = orderService.createOrders(List.copyOf(chunk));
+        } catch (RuntimeException ex) {
+            log.error("Order batch chunk of {} orders failed", chunk.size(), ex);
+            results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(OrderBatchResult.failed("Order could not be stored"));
+            }
+        }
+        for (int i = 0; i < results.size(); i++) {
+            writeResult(out, chunkLines.get(i), results.get(i));
+        }
+        out.flush();
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static String validationError(Set<ConstraintViolation<OrderCreateRequest>> violations) {
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; ", "Validation error: ", ""));
     }
 
+    private void writeResult(OutputStream out, long lineNumber, OrderBatchResult result) throws IOException {
+        result.setLine(lineNumber);
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    // The version is read on its own first, so an unchanged order is answered without loading it or its items
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable UUID id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable UUID id, WebRequest webRequest) {
+        String etag = ETags.of(orderService.getOrderVersion(id));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(orderService.getOrderById(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<CursorPage<OrderDTO>> getAllOrders(CursorRequest page) {
+        return ETags.ok(orderService.getAllOrders(page), OrderController::version);
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByCustomerId(@PathVariable UUID customerId) {
-        return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId));
+    public ResponseEntity<CursorPage<OrderDTO>> getOrdersByCustomerId(@PathVariable UUID customerId, CursorRequest page) {
+        return ETags.ok(orderService.getOrdersByCustomerId(customerId, page), OrderController::version);
     }
 
     @DeleteMapping("/{id}")
@@ -49,13 +184,89 @@ public class OrderController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<OrderDTO>> searchOrders(
+    public ResponseEntity<CursorPage<OrderDTO>> searchOrders(
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "asc") String direction,
+            CursorRequest page) {
+        OrderSearchRequest searchRequest = searchRequest(customerId, customerName, startDate, endDate, minAmount, maxAmount,
+            direction);
+        return ETags.ok(orderService.searchOrders(searchRequest, page), OrderController::version);
+    }
+
+    // Full order history for offline processing; orders are written as they are read, so memory stays flat.
+    // Streamed from a WebAsyncTask rather than a StreamingResponseBody return so only this response gets the
+    // export timeout.
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportOrders(
             @RequestParam(required = false) UUID customerId,
             @RequestParam(required = false) String customerName,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) BigDecimal minAmount,
-            @RequestParam(required = false) BigDecimal maxAmount) {
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) {
+        OrderSearchRequest searchRequest = searchRequest(customerId, customerName, startDate, endDate, minAmount, maxAmount,
+            direction);
+
+        StreamingResponseBody body;
+        MediaType contentType;
+        if (format.equalsIgnoreCase("ndjson")) {
+            contentType = MediaType.parseMediaType(NDJSON);
+            body = out -> orderService.exportOrders(searchRequest, order -> writeNdjson(out, order));
+        } else if (format.equalsIgnoreCase("csv")) {
+            contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            body = out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(CSV_HEADER);
+                orderService.exportOrders(searchRequest, order -> writeCsv(writer, order));
+                writer.flush();
+            };
+        } else {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + format.toLowerCase() + "\"");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            body.writeTo(out);
+            out.flush();
+            return null;
+        });
+    }
+
+    private void writeNdjson(OutputStream out, OrderDTO order) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // One row per item; every value is a UUID, number or ISO timestamp, so nothing needs quoting
+    private void writeCsv(Writer writer, OrderDTO order) {
+        try {
+            for (OrderItemDTO item : order.getItems()) {
+                writer.write(order.getId() + "," + order.getCustomerId() + "," + order.getTotalAmount() + ","
+                    + order.getCreatedAt() + "," + item.getId() + "," + item.getProductId() + ","
+                    + item.getQuantity() + "," + item.getPrice() + "," + item.getTotalPrice() + "\n");
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private OrderSearchRequest searchRequest(UUID customerId, String customerName, LocalDateTime startDate,
+                                             LocalDateTime endDate, BigDecimal minAmount, BigDecimal maxAmount,
+                                             String direction) {
         OrderSearchRequest searchRequest = new OrderSearchRequest();
         searchRequest.setCustomerId(customerId);
         searchRequest.setCustomerName(customerName);
@@ -63,6 +274,27 @@ public class OrderController {
         searchRequest.setEndDate(endDate);
         searchRequest.setMinAmount(minAmount);
         searchRequest.setMaxAmount(maxAmount);
-        return ResponseEntity.ok(orderService.searchOrders(searchRequest));
+        searchRequest.setDirection(Sort.Direction.fromString(direction));
+        return searchRequest;
+    }
+
+    private static String version(OrderDTO order) {
+        return order.getId() + ":" + order.getVersion();
+    }
+
+    @PostMapping("/reservations")
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody OrderCreateRequest request) {
+        return new ResponseEntity<>(reservationService.reserve(request), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/reservations/{id}/confirm")
+    public ResponseEntity<OrderDTO> confirmReservation(@PathVariable UUID id) {
+        return new ResponseEntity<>(reservationService.confirm(id), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/reservations/{id}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable UUID id) {
+        reservationService.release(id);
+        return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+}
@@ -1,17 +1,30 @@
 package com.gardiyan.oms.controller;
 
+import com.gardiyan.oms.cache.ProductResponseCache;
+import com.gardiyan.oms.cache.ProductResponseCache.SerializedResponse;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
 import com.gardiyan.oms.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
@@ -22,6 +35,7 @@ import java.util.UUID;
 @Tag(name = "Product Management", description = "APIs for managing products")
 public class ProductController {
     private final ProductService productService;
+    private final ObjectProvider<ProductResponseCache> responseCache;
 
     @PostMapping
     @Operation(summary = "Create a new product")
@@ -31,14 +45,21 @@ public class ProductController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a product by ID")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable UUID id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable UUID id, HttpServletRequest request,
+                                                     HttpServletResponse response) throws IOException {
+        ProductResponseCache cache = responseCache.getIfAvailable();
+        if (cache != null) {
+            write(cache.product(id, () -> productService.getProductById(id), ProductController::etag), request, response);
+            return null;
+        }
+        ProductDTO product = productService.getProductById(id);
+        return ResponseEntity.ok().eTag(etag(product)).body(product);
     }
 
     @GetMapping
     @Operation(summary = "Get all products")
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductDTO>> getAllProducts(CursorRequest page) {
+        return ETags.ok(productService.getAllProducts(page), ProductController::version);
     }
 
     @PutMapping("/{id}")
@@ -60,19 +81,82 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateStock(id, quantity));
     }
 
+    @PutMapping("/{id}/stock-shards")
+    @Operation(summary = "Spread a hot product's stock over several rows")
+    public ResponseEntity<ProductDTO> enableStockSharding(@PathVariable UUID id, @RequestParam int count) {
+        return ResponseEntity.ok(productService.enableStockSharding(id, count));
+    }
+
+    @DeleteMapping("/{id}/stock-shards")
+    @Operation(summary = "Move a product's sharded stock back to a single row")
+    public ResponseEntity<ProductDTO> disableStockSharding(@PathVariable UUID id) {
+        return ResponseEntity.ok(productService.disableStockSharding(id));
+    }
+
     @GetMapping("/in-stock")
     @Operation(summary = "Get all products in stock")
-    public ResponseEntity<List<ProductDTO>> getProductsInStock() {
-        return ResponseEntity.ok(productService.getProductsInStock());
+    public ResponseEntity<CursorPage<ProductDTO>> getProductsInStock(CursorRequest page, HttpServletRequest request,
+                                                                     HttpServletResponse response) throws IOException {
+        ProductResponseCache cache = responseCache.getIfAvailable();
+        if (cache != null) {
+            write(cache.inStock(page, () -> productService.getProductsInStock(page),
+                products -> ETags.of(products, ProductController::version)), request, response);
+            return null;
+        }
+        return ETags.ok(productService.getProductsInStock(page), ProductController::version);
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search products")
-    public ResponseEntity<List<ProductDTO>> searchProducts(
+    public ResponseEntity<ProductSearchPage> searchProducts(
+            @RequestParam(required = false) String query,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) Integer minStock) {
-        return ResponseEntity.ok(productService.searchProducts(name, minPrice, maxPrice, minStock));
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(defaultValue = "false") boolean facets,
+            CursorRequest page) {
+        ProductSearchPage results = productService.searchProducts(query, name, minPrice, maxPrice, minStock, facets,
+            page);
+        return ResponseEntity.ok()
+            .eTag(ETags.of(results, ProductController::version, results.getFacets()))
+            .body(results);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest product names starting with a prefix, best sellers first")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    // Cached bytes go straight to the response; returning null tells Spring MVC the response is already handled
+    private static void write(SerializedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = SerializedResponse.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        byte[] body = gzip ? cached.gzip() : cached.json();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String etag(ProductDTO product) {
+        return ETags.of(product.getVersion(), product.getStockQuantity());
+    }
+
+    // Sharded and in-memory stock changes do not touch the product row, so stock is part of the version
+    private static String version(ProductDTO product) {
+        return product.getId() + ":" + product.getVersion() + ":" + product.getStockQuantity();
     }
 } 
\ No newline at end of file
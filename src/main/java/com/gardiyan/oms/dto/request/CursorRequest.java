@@ -0,0 +1,23 @@
+package com.gardiyan.oms.dto.request;
+
+import lombok.Data;
+
+// Bound from the cursor, size and count query parameters of list and search endpoints
+@Data
+public class CursorRequest {
+    private String cursor;
+    private int size = 50;
+    private boolean count;
+
+    public static CursorRequest first(int size) {
+        CursorRequest request = new CursorRequest();
+        request.setSize(size);
+        return request;
+    }
+
+    public static CursorRequest after(String cursor, int size) {
+        CursorRequest request = first(size);
+        request.setCursor(cursor);
+        return request;
+    }
+}
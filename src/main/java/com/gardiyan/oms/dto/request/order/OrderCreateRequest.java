@@ -1,11 +1,16 @@
 package com.gardiyan.oms.dto.request.order;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import java.util.List;
 import java.util.UUID;
 
 @Data
 public class OrderCreateRequest {
+    @NotNull(message = "Customer id is required")
     private UUID customerId;
-    private List<OrderItemRequest> items;
-} 
\ No newline at end of file
+    @NotEmpty(message = "Order must contain at least one item")
+    private List<@Valid OrderItemRequest> items;
+}
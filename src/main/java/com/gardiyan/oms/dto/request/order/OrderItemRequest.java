@@ -1,10 +1,14 @@
 package com.gardiyan.oms.dto.request.order;
 
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import java.util.UUID;
 
 @Data
 public class OrderItemRequest {
+    @NotNull(message = "Product id is required")
     private UUID productId;
+    @Positive(message = "Quantity must be greater than 0")
     private int quantity;
-} 
\ No newline at end of file
+}
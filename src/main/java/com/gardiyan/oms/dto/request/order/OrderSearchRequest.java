@@ -1,6 +1,8 @@
 package com.gardiyan.oms.dto.request.order;
 
 import lombok.Data;
+import org.springframework.data.domain.Sort;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -13,4 +15,6 @@ public class OrderSearchRequest {
     private LocalDateTime endDate;
     private BigDecimal minAmount;
     private BigDecimal maxAmount;
+    // Orders are returned by (createdAt, id); DESC lists the newest first
+    private Sort.Direction direction = Sort.Direction.ASC;
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.gardiyan.oms.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> items;
+    // Pass back as ?cursor= to get the next page; absent on the last page
+    private String nextCursor;
+    // Only filled in when the request asked for ?count=true
+    private Long totalCount;
+}
@@ -11,4 +11,5 @@ public class CustomerDTO {
     private String email;
     private String phone;
     private String address;
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.gardiyan.oms.dto.response.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBatchResult {
+    private long line;
+    private UUID orderId;
+    private String error;
+
+    public static OrderBatchResult created(UUID orderId) {
+        OrderBatchResult result = new OrderBatchResult();
+        result.setOrderId(orderId);
+        return result;
+    }
+
+    public static OrderBatchResult failed(String error) {
+        OrderBatchResult result = new OrderBatchResult();
+        result.setError(error);
+        return result;
+    }
+}
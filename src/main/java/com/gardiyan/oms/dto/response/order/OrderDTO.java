@@ -12,5 +12,6 @@ public class OrderDTO {
     private UUID customerId;
     private BigDecimal totalAmount;
     private LocalDateTime createdAt;
+    private Long version;
     private List<OrderItemDTO> items;
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.gardiyan.oms.dto.response.order;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class ReservationDTO {
+    private UUID id;
+    private UUID customerId;
+    private Map<UUID, Integer> items;
+    private LocalDateTime expiresAt;
+}
@@ -12,5 +12,7 @@ public class ProductDTO {
     private String description;
     private BigDecimal price;
     private int stockQuantity;
+    private int stockShards;
     private LocalDateTime createdAt;
+    private Long version;
 } 
\ No newline at end of file
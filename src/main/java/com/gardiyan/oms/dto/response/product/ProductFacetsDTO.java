@@ -0,0 +1,30 @@
+package com.gardiyan.oms.dto.response.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ProductFacetsDTO {
+    private List<PriceBand> priceBands;
+    // Stock below 1, below the low-stock threshold, and at or above it
+    private long outOfStock;
+    private long lowStock;
+    private long plentyStock;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class PriceBand {
+        // Inclusive; absent on the first band
+        private BigDecimal minPrice;
+        // Exclusive; absent on the last band
+        private BigDecimal maxPrice;
+        private long count;
+    }
+}
@@ -0,0 +1,23 @@
+package com.gardiyan.oms.dto.response.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gardiyan.oms.dto.response.CursorPage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSearchPage extends CursorPage<ProductDTO> {
+    // Only filled in when the request asked for ?facets=true; counted over every match, not just this page
+    private ProductFacetsDTO facets;
+
+    public ProductSearchPage(CursorPage<ProductDTO> page, ProductFacetsDTO facets) {
+        super(page.getItems(), page.getNextCursor(), page.getTotalCount());
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,11 @@
+package com.gardiyan.oms.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published whenever a customer is created, changed or deleted. {@code emails} holds every normalized address
+ * the change touches, so lookups by an old address are dropped along with the id.
+ */
+public record CustomerChangedEvent(UUID customerId, Collection<String> emails) {
+}
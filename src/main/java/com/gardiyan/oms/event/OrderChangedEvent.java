@@ -0,0 +1,16 @@
+package com.gardiyan.oms.event;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published whenever orders are created or deleted. Listeners react after the surrounding transaction
+ * completes, so they never observe uncommitted state.
+ */
+public record OrderChangedEvent(Collection<UUID> orderIds) {
+
+    public static OrderChangedEvent of(UUID orderId) {
+        return new OrderChangedEvent(Set.of(orderId));
+    }
+}
@@ -0,0 +1,26 @@
+package com.gardiyan.oms.event;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published whenever a product's catalog data or stock changes. Listeners that keep derived copies of
+ * products react after the surrounding transaction completes, so they never observe uncommitted state.
+ * {@code catalogChanged} is set when the product was created, deleted or had its name, description or price
+ * changed, as opposed to a stock movement.
+ */
+public record ProductChangedEvent(Collection<UUID> productIds, boolean catalogChanged) {
+
+    public ProductChangedEvent(Collection<UUID> productIds) {
+        this(productIds, false);
+    }
+
+    public static ProductChangedEvent of(UUID productId) {
+        return new ProductChangedEvent(Set.of(productId));
+    }
+
+    public static ProductChangedEvent catalog(UUID productId) {
+        return new ProductChangedEvent(Set.of(productId), true);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gardiyan.oms.event;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Published when orders are placed, with the units they sold of each product. Listeners that rank products by
+ * sales react after the surrounding transaction commits.
+ */
+public record ProductsSoldEvent(Map<UUID, Integer> quantities) {
+}
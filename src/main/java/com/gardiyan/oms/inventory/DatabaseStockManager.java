@@ -0,0 +1,133 @@
+package com.gardiyan.oms.inventory;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductShardCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Guarded UPDATEs on {@code products.stock_quantity}. Products with sharded stock keep zero on that
+ * column, so their lines are always rejected by the first batch and retried against their shards.
+ * Every change publishes a {@link ProductChangedEvent} so cached copies of the stock are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "oms.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockManager implements StockManager {
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<UUID> reserve(Map<UUID, Integer> quantities) {
+        List<UUID> rejected = decrement(quantities);
+        if (rejected.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(quantities.keySet()));
+        }
+        return rejected;
+    }
+
+    private List<UUID> decrement(Map<UUID, Integer> quantities) {
+        List<UUID> rejected = productRepository.decrementStock(quantities);
+        if (rejected.isEmpty()) {
+            return rejected;
+        }
+
+        Map<UUID, Integer> applied = new HashMap<>(quantities);
+        rejected.forEach(applied::remove);
+
+        Map<UUID, Integer> shardCounts = shardCounts(rejected);
+        if (shardCounts.size() < rejected.size()) {
+            // Undo the lines that did apply so callers never depend on a rollback to stay consistent
+            productRepository.incrementStock(applied);
+            return rejected.stream().filter(id -> !shardCounts.containsKey(id)).collect(Collectors.toList());
+        }
+
+        Map<UUID, Integer> appliedShards = new TreeMap<>();
+        for (UUID productId : rejected) {
+            int quantity = quantities.get(productId);
+            if (!productRepository.decrementShards(productId, shardCounts.get(productId), quantity)) {
+                productRepository.incrementStock(applied);
+                appliedShards.forEach((id, taken) -> productRepository.incrementShards(id, shardCounts.get(id), taken));
+                return List.of(productId);
+            }
+            appliedShards.put(productId, quantity);
+        }
+        return List.of();
+    }
+
+    @Override
+    public void release(Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> shardCounts = shardCounts(quantities.keySet());
+        Map<UUID, Integer> rows = new HashMap<>(quantities);
+        shardCounts.keySet().forEach(rows::remove);
+
+        productRepository.incrementStock(rows);
+        shardCounts.forEach((productId, shards) ->
+            productRepository.incrementShards(productId, shards, quantities.get(productId)));
+        eventPublisher.publishEvent(new ProductChangedEvent(quantities.keySet()));
+    }
+
+    @Override
+    public boolean adjust(UUID productId, int delta) {
+        boolean adjusted;
+        if (!shardCounts(Set.of(productId)).isEmpty()) {
+            adjusted = productRepository.rebalanceShards(productId, delta);
+        } else {
+            int updated = delta >= 0
+                ? productRepository.incrementStock(productId, delta)
+                : productRepository.decrementStock(productId, -delta);
+            adjusted = updated > 0;
+        }
+        if (adjusted) {
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        }
+        return adjusted;
+    }
+
+    @Override
+    public int available(UUID productId, int persistedStock) {
+        return persistedStock;
+    }
+
+    @Override
+    public void track(UUID productId, int stockQuantity) {
+    }
+
+    @Override
+    public void untrack(UUID productId) {
+        productRepository.deleteShards(productId);
+    }
+
+    @Override
+    public boolean enableSharding(UUID productId, int shards) {
+        boolean split = productRepository.splitStock(productId, shards);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        return split;
+    }
+
+    @Override
+    public void disableSharding(UUID productId) {
+        productRepository.mergeStock(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+    }
+
+    private Map<UUID, Integer> shardCounts(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findShardCounts(productIds).stream()
+            .collect(Collectors.toMap(ProductShardCount::getId, ProductShardCount::getStockShards));
+    }
+}
@@ -0,0 +1,267 @@
+package com.gardiyan.oms.inventory;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.exception.ConflictException;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductStockLevel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps available stock in lock-free counters and writes the net change per product back to
+ * {@code products.stock_quantity} in periodic batches. Reservations are applied immediately and
+ * undone if the surrounding transaction rolls back; releases of ordered stock are applied once it commits.
+ * Absolute stock writes are picked up after they commit and never while a flush of the same product is running.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "oms.inventory.mode", havingValue = "memory")
+public class InMemoryStockLedger implements StockManager {
+    private static final int STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentMap<UUID, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+    // Held by a flush from taking a product's delta until it is committed, and by tracking an absolute write
+    private final Lock[] stripes = newStripes();
+
+    @PostConstruct
+    void rebuild() {
+        for (ProductStockLevel level : productRepository.findAllStockLevels()) {
+            available.put(level.getId(), new AtomicInteger(level.getStockQuantity()));
+        }
+        log.info("Inventory ledger loaded stock for {} products", available.size());
+    }
+
+    @Override
+    public List<UUID> reserve(Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> lines = new TreeMap<>(quantities);
+        List<Map.Entry<UUID, Integer>> taken = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> line : lines.entrySet()) {
+            if (!tryTake(line.getKey(), line.getValue())) {
+                taken.forEach(done -> give(done.getKey(), done.getValue()));
+                return List.of(line.getKey());
+            }
+            taken.add(line);
+        }
+
+        lines.forEach((productId, quantity) -> recordDelta(productId, -quantity));
+        onRollback(() -> lines.forEach(this::giveBack));
+        return List.of();
+    }
+
+    @Override
+    public void release(Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> copy = new HashMap<>(quantities);
+        onCommit(() -> copy.forEach(this::giveBack));
+    }
+
+    @Override
+    public boolean adjust(UUID productId, int delta) {
+        if (delta >= 0) {
+            if (counter(productId) == null) {
+                return false;
+            }
+            giveBack(productId, delta);
+            onRollback(() -> giveBack(productId, -delta));
+            return true;
+        }
+
+        if (!tryTake(productId, -delta)) {
+            return false;
+        }
+        recordDelta(productId, delta);
+        onRollback(() -> giveBack(productId, -delta));
+        return true;
+    }
+
+    @Override
+    public int available(UUID productId, int persistedStock) {
+        AtomicInteger counter = available.get(productId);
+        return counter != null ? counter.get() : persistedStock;
+    }
+
+    @Override
+    public void track(UUID productId, int stockQuantity) {
+        onCommit(() -> rebase(productId, stockQuantity));
+    }
+
+    @Override
+    public void untrack(UUID productId) {
+        available.remove(productId);
+        pendingDeltas.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${oms.inventory.flush-interval-ms:200}")
+    public void flush() {
+        List<UUID> productIds = new ArrayList<>(pendingDeltas.keySet());
+        // Taken in stripe order, so two flushes never wait on each other's stripes
+        List<Lock> held = productIds.stream()
+            .map(this::stripeIndex)
+            .distinct()
+            .sorted()
+            .map(index -> stripes[index])
+            .toList();
+        held.forEach(Lock::lock);
+        try {
+            Map<UUID, Integer> deltas = new HashMap<>();
+            for (UUID productId : productIds) {
+                AtomicInteger pending = pendingDeltas.get(productId);
+                int delta = pending == null ? 0 : pending.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(productId, delta);
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                // Published inside the transaction, so listeners that mirror stored stock see it once it commits
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.incrementStock(deltas);
+                    eventPublisher.publishEvent(new ProductChangedEvent(deltas.keySet()));
+                });
+            } catch (RuntimeException ex) {
+                deltas.forEach(this::recordDelta);
+                log.error("Failed to flush stock deltas for {} products, retrying on next run", deltas.size(), ex);
+            }
+        } finally {
+            held.forEach(Lock::unlock);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // A flush that committed after the absolute write added its delta on top of it, so the stored value is read
+    // back rather than taken from the write. Deltas not yet flushed will land on top of it as well.
+    private void rebase(UUID productId, int written) {
+        Lock stripe = stripes[stripeIndex(productId)];
+        stripe.lock();
+        try {
+            int stored = productRepository.findStockLevelById(productId)
+                .map(ProductStockLevel::getStockQuantity)
+                .orElse(written);
+            AtomicInteger pending = pendingDeltas.get(productId);
+            available.computeIfAbsent(productId, id -> new AtomicInteger())
+                .set(stored + (pending == null ? 0 : pending.get()));
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private int stripeIndex(UUID productId) {
+        return Math.floorMod(productId.hashCode(), STRIPES);
+    }
+
+    private static Lock[] newStripes() {
+        Lock[] stripes = new Lock[STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+
+    private AtomicInteger counter(UUID productId) {
+        return available.computeIfAbsent(productId, id -> productRepository.findStockLevelById(id)
+            .map(level -> new AtomicInteger(level.getStockQuantity()))
+            .orElse(null));
+    }
+
+    private boolean tryTake(UUID productId, int quantity) {
+        AtomicInteger counter = counter(productId);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void give(UUID productId, int quantity) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+        }
+    }
+
+    private void giveBack(UUID productId, int quantity) {
+        give(productId, quantity);
+        recordDelta(productId, quantity);
+    }
+
+    private void recordDelta(UUID productId, int delta) {
+        pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean enableSharding(UUID productId, int shards) {
+        throw new ConflictException("Stock sharding requires oms.inventory.mode=database");
+    }
+
+    @Override
+    public void disableSharding(UUID productId) {
+        throw new ConflictException("Stock sharding requires oms.inventory.mode=database");
+    }
+}
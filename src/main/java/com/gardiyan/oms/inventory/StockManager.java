@@ -0,0 +1,39 @@
+package com.gardiyan.oms.inventory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Single entry point for every change to available stock. The active implementation is chosen with
+ * {@code oms.inventory.mode}: {@code database} (default) or {@code memory}.
+ */
+public interface StockManager {
+    /**
+     * Takes all requested quantities or none of them. Returns the ids that could not be satisfied,
+     * or an empty list on success.
+     */
+    List<UUID> reserve(Map<UUID, Integer> quantities);
+
+    void release(Map<UUID, Integer> quantities);
+
+    /**
+     * Applies a signed delta to one product. Returns {@code false} if the product is unknown or the
+     * delta would take its stock below zero.
+     */
+    boolean adjust(UUID productId, int delta);
+
+    int available(UUID productId, int persistedStock);
+
+    void track(UUID productId, int stockQuantity);
+
+    void untrack(UUID productId);
+
+    /**
+     * Spreads a product's stock over {@code shards} rows so concurrent orders lock different rows.
+     * Returns {@code false} if the product does not exist.
+     */
+    boolean enableSharding(UUID productId, int shards);
+
+    void disableSharding(UUID productId);
+}
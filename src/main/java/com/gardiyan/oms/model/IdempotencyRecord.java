@@ -0,0 +1,44 @@
+package com.gardiyan.oms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String id;
+
+    @Column(name = "order_id", nullable = false)
+    private UUID orderId;
+
+    // SHA-256 of the request the key was first used with; null on records stored before it was kept
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord(String id, UUID orderId, String requestHash) {
+        this.id = id;
+        this.orderId = orderId;
+        this.requestHash = requestHash;
+    }
+
+    // Records are only ever inserted: save must persist, so a key another instance already stored fails on the
+    // primary key instead of being merged into that row
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
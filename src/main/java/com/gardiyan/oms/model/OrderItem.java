@@ -15,7 +15,7 @@ import java.util.UUID;
 public class OrderItem {
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = "com.gardiyan.oms.model.id.UuidV7Generator")
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
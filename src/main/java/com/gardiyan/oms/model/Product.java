@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -14,11 +15,11 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_created_at_id", columnList = "created_at, id"))
 public class Product {
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = "com.gardiyan.oms.model.id.UuidV7Generator")
     private UUID id;
 
     @NotBlank(message = "Product name is required")
@@ -38,7 +39,18 @@ public class Product {
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity;
 
+    // Number of product_stock_shards rows holding this product's stock; 0 keeps it in stock_quantity
+    @ColumnDefault("0")
+    @Column(name = "stock_shards", nullable = false)
+    private Integer stockShards = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Bumped by Hibernate on entity updates and by every guarded stock UPDATE; served as the resource's ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.gardiyan.oms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.UUID;
+
+// Rows are written with plain JDBC by ProductStockRepositoryImpl; the entity exists for the schema and queries
+@Data
+@Entity
+@Table(name = "product_stock_shards",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "shard_no"}))
+public class ProductStockShard {
+    @Id
+    private UUID id;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,45 @@
+package com.gardiyan.oms.model.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit millisecond timestamp followed by a 12-bit counter and 62 random bits.
+ * The counter starts at a random value each millisecond and increments within it, so ids from this JVM are
+ * strictly increasing; when it overflows the timestamp part is carried forward instead of going back.
+ */
+public final class UuidV7 {
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    // Last issued (timestamp << 12 | counter)
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long previous;
+        long next;
+        do {
+            previous = STATE.get();
+            // Start each millisecond in the lower half of the counter range to leave room for increments
+            next = now > previous >>> COUNTER_BITS
+                ? now << COUNTER_BITS | ThreadLocalRandom.current().nextLong(1L << (COUNTER_BITS - 1))
+                : previous + 1;
+        } while (!STATE.compareAndSet(previous, next));
+
+        long mostSigBits = (next >>> COUNTER_BITS) << 16 | VERSION | (next & COUNTER_MASK);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & RANDOM_MASK | VARIANT;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
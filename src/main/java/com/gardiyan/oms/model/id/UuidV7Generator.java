@@ -0,0 +1,12 @@
+package com.gardiyan.oms.model.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+// Plugged into entities through @GenericGenerator(strategy = ...) in place of org.hibernate.id.UUIDGenerator
+public class UuidV7Generator implements IdentifierGenerator {
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return UuidV7.next();
+    }
+}
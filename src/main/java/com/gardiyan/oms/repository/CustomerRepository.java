@@ -3,13 +3,19 @@ package com.gardiyan.oms.repository;
 import com.gardiyan.oms.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSpecificationExecutor<Customer> {
+public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSpecificationExecutor<Customer>,
+        CustomerViewRepository {
     Optional<Customer> findByEmail(String email);
-    boolean existsByEmail(String email);
+
+    // Rows stored before emails were normalized may be mixed-case, so compare on lower(email)
+    @Query("SELECT COUNT(c) > 0 FROM Customer c WHERE LOWER(c.email) = :email")
+    boolean existsByNormalizedEmail(@Param("email") String email);
 } 
\ No newline at end of file
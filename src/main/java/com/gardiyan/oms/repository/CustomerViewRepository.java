@@ -0,0 +1,18 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CustomerViewRepository {
+    Optional<CustomerView> findViewById(UUID id);
+
+    Optional<CustomerView> findViewByEmail(String email);
+
+    List<CustomerView> findViews(Specification<Customer> spec, Sort sort, int limit);
+}
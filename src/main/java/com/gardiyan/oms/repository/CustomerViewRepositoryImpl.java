@@ -0,0 +1,66 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import com.gardiyan.oms.repository.spec.CustomerSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class CustomerViewRepositoryImpl implements CustomerViewRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<CustomerView> findViewById(UUID id) {
+        Specification<Customer> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return findViews(byId, Sort.unsorted(), 1).stream().findFirst();
+    }
+
+    @Override
+    public Optional<CustomerView> findViewByEmail(String email) {
+        return findViews(CustomerSpecification.hasEmail(email), Sort.unsorted(), 1).stream().findFirst();
+    }
+
+    @Override
+    public List<CustomerView> findViews(Specification<Customer> spec, Sort sort, int limit) {
+        return ViewQueries.select(entityManager, Customer.class, CustomerViewRepositoryImpl::columns,
+            CustomerViewRepositoryImpl::toView, spec, sort, limit);
+    }
+
+    private static List<Selection<?>> columns(Root<Customer> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return List.of(
+            root.get("id"),
+            root.get("firstName"),
+            root.get("lastName"),
+            root.get("email"),
+            root.get("phone"),
+            root.get("createdAt"),
+            root.get("version")
+        );
+    }
+
+    private static CustomerView toView(Tuple tuple) {
+        return new CustomerView(
+            tuple.get(0, UUID.class),
+            tuple.get(1, String.class),
+            tuple.get(2, String.class),
+            tuple.get(3, String.class),
+            tuple.get(4, String.class),
+            tuple.get(5, LocalDateTime.class),
+            tuple.get(6, Long.class)
+        );
+    }
+}
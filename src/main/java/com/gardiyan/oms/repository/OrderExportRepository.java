@@ -0,0 +1,17 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Order;
+import com.gardiyan.oms.repository.projection.OrderLineView;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface OrderExportRepository {
+    /**
+     * Streams the items of every order matching {@code spec}, ordered by order (createdAt, id) in {@code direction}
+     * so that the lines of one order are adjacent. The stream holds an open cursor and must be closed inside the
+     * transaction.
+     */
+    Stream<OrderLineView> streamLines(Specification<Order> spec, Sort.Direction direction);
+}
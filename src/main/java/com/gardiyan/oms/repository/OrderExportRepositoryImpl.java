@@ -0,0 +1,90 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Order;
+import com.gardiyan.oms.model.OrderItem;
+import com.gardiyan.oms.repository.projection.OrderLineView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${oms.orders.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Scalar rows rather than entities, so the persistence context stays empty however many orders are read
+    @Override
+    public Stream<OrderLineView> streamLines(Specification<Order> spec, Sort.Direction direction) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Order> order = query.from(Order.class);
+        Join<Order, OrderItem> item = order.join("orderItems", JoinType.LEFT);
+
+        query.multiselect(
+            order.get("id"),
+            order.get("customer").get("id"),
+            order.get("totalAmount"),
+            order.get("createdAt"),
+            order.get("version"),
+            item.get("id"),
+            item.get("product").get("id"),
+            item.get("quantity"),
+            item.get("price"),
+            item.get("totalPrice")
+        );
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(order, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(sort(cb, order.get("createdAt"), direction), sort(cb, order.get("id"), direction),
+            cb.asc(item.get("id")));
+
+        // PostgreSQL only honours the fetch size inside a transaction; without one the driver buffers every row
+        return entityManager.createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()
+            .map(OrderExportRepositoryImpl::toLine);
+    }
+
+    private static jakarta.persistence.criteria.Order sort(CriteriaBuilder cb, Expression<?> expression,
+                                                           Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(expression) : cb.desc(expression);
+    }
+
+    private static OrderLineView toLine(Tuple tuple) {
+        return new OrderLineView(
+            tuple.get(0, UUID.class),
+            tuple.get(1, UUID.class),
+            tuple.get(2, BigDecimal.class),
+            tuple.get(3, LocalDateTime.class),
+            tuple.get(4, Long.class),
+            tuple.get(5, UUID.class),
+            tuple.get(6, UUID.class),
+            tuple.get(7, Integer.class),
+            tuple.get(8, BigDecimal.class),
+            tuple.get(9, BigDecimal.class)
+        );
+    }
+}
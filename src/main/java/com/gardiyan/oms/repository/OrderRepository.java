@@ -1,6 +1,8 @@
 package com.gardiyan.oms.repository;
 
 import com.gardiyan.oms.model.Order;
+import com.gardiyan.oms.repository.projection.ProductSales;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -8,25 +10,26 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order>,
+        OrderExportRepository {
     List<Order> findByCustomerId(UUID customerId);
 
-    @Query("SELECT o FROM Order o WHERE o.customer.firstName LIKE %:name% OR o.customer.lastName LIKE %:name%")
-    List<Order> findByCustomerName(@Param("name") String name);
-
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 
-    @Query("SELECT o FROM Order o " +
-           "WHERE (:customerId IS NULL OR o.customer.id = :customerId) " +
-           "AND (:startDate IS NULL OR o.createdAt >= :startDate) " +
-           "AND (:endDate IS NULL OR o.createdAt <= :endDate)")
-    List<Order> searchOrders(
-        @Param("customerId") UUID customerId,
-        @Param("startDate") LocalDateTime startDate,
-        @Param("endDate") LocalDateTime endDate
-    );
+    // Second phase of a paged read: the page is limited on orders alone, then every item is fetched in one join
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT o.version FROM Order o WHERE o.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Query("SELECT i.product.id AS productId, SUM(i.quantity) AS unitsSold FROM Order o JOIN o.orderItems i " +
+           "WHERE o.createdAt >= :since GROUP BY i.product.id")
+    List<ProductSales> findUnitsSoldSince(@Param("since") LocalDateTime since);
 } 
\ No newline at end of file
@@ -1,21 +1,38 @@
 package com.gardiyan.oms.repository;
 
 import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.projection.ProductShardCount;
+import com.gardiyan.oms.repository.projection.ProductStockLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
-    @Lock(LockModeType.NONE)
-    @Query("SELECT p FROM Product p WHERE p.id = :id")
-    Product findByIdWithLock(UUID id);
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductStockRepository, ProductViewRepository {
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
 
-    List<Product> findByStockQuantityGreaterThan(Integer quantity);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :id")
+    int incrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.id AS id, p.stockQuantity AS stockQuantity FROM Product p")
+    List<ProductStockLevel> findAllStockLevels();
+
+    Optional<ProductStockLevel> findStockLevelById(UUID id);
+
+    @Query("SELECT p.id AS id, p.stockShards AS stockShards FROM Product p WHERE p.id IN :ids AND p.stockShards > 0")
+    List<ProductShardCount> findShardCounts(@Param("ids") Collection<UUID> ids);
 } 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.gardiyan.oms.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ProductStockRepository {
+    /**
+     * Applies {@code stock_quantity = stock_quantity - q WHERE stock_quantity >= q} for every entry
+     * in a single JDBC batch and returns the ids whose guard did not hold.
+     */
+    List<UUID> decrementStock(Map<UUID, Integer> quantities);
+
+    void incrementStock(Map<UUID, Integer> quantities);
+
+    /**
+     * Takes {@code quantity} from a product's shards: first from a single shard, starting at a random
+     * one, and only if none can cover it alone from all shards together under their row locks.
+     */
+    boolean decrementShards(UUID productId, int shards, int quantity);
+
+    void incrementShards(UUID productId, int shards, int quantity);
+
+    int sumShards(UUID productId);
+
+    /**
+     * Sums a product's shards under their row locks, which are held until the transaction ends.
+     */
+    int lockShardTotal(UUID productId);
+
+    /**
+     * Applies a signed delta to the shard total and spreads the result evenly over the shards.
+     * Returns {@code false} if the total would go below zero.
+     */
+    boolean rebalanceShards(UUID productId, int delta);
+
+    /**
+     * Moves {@code stock_quantity} into {@code shards} rows. Returns {@code false} if the product does not exist.
+     */
+    boolean splitStock(UUID productId, int shards);
+
+    /**
+     * Moves the shard total back into {@code stock_quantity} and drops the shards.
+     */
+    void mergeStock(UUID productId);
+
+    void deleteShards(UUID productId);
+}
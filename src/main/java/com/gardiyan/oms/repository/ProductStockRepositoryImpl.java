@@ -0,0 +1,201 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.id.UuidV7;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    // Writes to products bump version the way a Hibernate update would. Shard writes leave the product row alone,
+    // which is the point of sharding, so product ETags also carry the stock total.
+    private static final String DECREMENT_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1 " +
+        "WHERE id = ? AND stock_quantity >= ?";
+    private static final String INCREMENT_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?";
+    private static final String DECREMENT_SHARD_SQL =
+        "UPDATE product_stock_shards SET quantity = quantity - ? " +
+        "WHERE product_id = ? AND shard_no = ? AND quantity >= ?";
+    private static final String INCREMENT_SHARD_SQL =
+        "UPDATE product_stock_shards SET quantity = quantity + ? WHERE product_id = ? AND shard_no = ?";
+    private static final String SET_SHARD_SQL =
+        "UPDATE product_stock_shards SET quantity = ? WHERE product_id = ? AND shard_no = ?";
+    private static final String LOCK_SHARDS_SQL =
+        "SELECT shard_no, quantity FROM product_stock_shards WHERE product_id = ? ORDER BY shard_no FOR UPDATE";
+    private static final String SUM_SHARDS_SQL =
+        "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_shards WHERE product_id = ?";
+    private static final String INSERT_SHARD_SQL =
+        "INSERT INTO product_stock_shards (id, product_id, shard_no, quantity) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SHARDS_SQL =
+        "DELETE FROM product_stock_shards WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UUID> decrementStock(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        // Sorted so that concurrent batches take row locks in the same order
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+
+        entityManager.flush();
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setObject(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        });
+        entityManager.clear();
+
+        List<UUID> rejected = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (counts[0][i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public void incrementStock(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setObject(2, line.getKey());
+        });
+        entityManager.clear();
+    }
+
+    @Override
+    public boolean decrementShards(UUID productId, int shards, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int shardNo = (start + i) % shards;
+            if (jdbcTemplate.update(DECREMENT_SHARD_SQL, quantity, productId, shardNo, quantity) > 0) {
+                return true;
+            }
+        }
+
+        // No single shard covers the quantity: lock all of them in shard order and drain them one by one
+        List<int[]> locked = lockShards(productId);
+        int total = locked.stream().mapToInt(shard -> shard[1]).sum();
+        if (total < quantity) {
+            return false;
+        }
+
+        List<Object[]> takes = new ArrayList<>();
+        int remaining = quantity;
+        for (int[] shard : locked) {
+            int take = Math.min(shard[1], remaining);
+            if (take > 0) {
+                takes.add(new Object[]{shard[1] - take, productId, shard[0]});
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        jdbcTemplate.batchUpdate(SET_SHARD_SQL, takes);
+        return true;
+    }
+
+    @Override
+    public void incrementShards(UUID productId, int shards, int quantity) {
+        jdbcTemplate.update(INCREMENT_SHARD_SQL, quantity, productId, ThreadLocalRandom.current().nextInt(shards));
+    }
+
+    @Override
+    public int sumShards(UUID productId) {
+        Integer sum = jdbcTemplate.queryForObject(SUM_SHARDS_SQL, Integer.class, productId);
+        return sum == null ? 0 : sum;
+    }
+
+    @Override
+    public int lockShardTotal(UUID productId) {
+        return lockShards(productId).stream().mapToInt(shard -> shard[1]).sum();
+    }
+
+    @Override
+    public boolean rebalanceShards(UUID productId, int delta) {
+        List<int[]> locked = lockShards(productId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        int total = locked.stream().mapToInt(shard -> shard[1]).sum() + delta;
+        if (total < 0) {
+            return false;
+        }
+
+        jdbcTemplate.batchUpdate(SET_SHARD_SQL, evenSplit(productId, total, locked.size(), false));
+        return true;
+    }
+
+    @Override
+    public boolean splitStock(UUID productId, int shards) {
+        entityManager.flush();
+        List<Integer> stock = jdbcTemplate.queryForList(
+            "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+        if (stock.isEmpty()) {
+            return false;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SHARD_SQL, evenSplit(productId, stock.get(0), shards, true));
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 0, stock_shards = ?, version = version + 1 WHERE id = ?",
+            shards, productId);
+        entityManager.clear();
+        return true;
+    }
+
+    @Override
+    public void mergeStock(UUID productId) {
+        entityManager.flush();
+        jdbcTemplate.queryForList("SELECT id FROM products WHERE id = ? FOR UPDATE", UUID.class, productId);
+        int total = lockShards(productId).stream().mapToInt(shard -> shard[1]).sum();
+        jdbcTemplate.update(DELETE_SHARDS_SQL, productId);
+        jdbcTemplate.update(
+            "UPDATE products SET stock_quantity = stock_quantity + ?, stock_shards = 0, version = version + 1 WHERE id = ?",
+            total, productId);
+        entityManager.clear();
+    }
+
+    @Override
+    public void deleteShards(UUID productId) {
+        jdbcTemplate.update(DELETE_SHARDS_SQL, productId);
+    }
+
+    private List<int[]> lockShards(UUID productId) {
+        return jdbcTemplate.query(LOCK_SHARDS_SQL,
+            (rs, rowNum) -> new int[]{rs.getInt("shard_no"), rs.getInt("quantity")}, productId);
+    }
+
+    // Rows for SET_SHARD_SQL, or INSERT_SHARD_SQL when insert is true; the remainder goes to the first shards
+    private List<Object[]> evenSplit(UUID productId, int total, int shards, boolean insert) {
+        List<Object[]> rows = new ArrayList<>(shards);
+        for (int shardNo = 0; shardNo < shards; shardNo++) {
+            int quantity = total / shards + (shardNo < total % shards ? 1 : 0);
+            rows.add(insert
+                ? new Object[]{UuidV7.next(), productId, shardNo, quantity}
+                : new Object[]{quantity, productId, shardNo});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,19 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.projection.ProductView;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ProductViewRepository {
+    Optional<ProductView> findViewById(UUID id);
+
+    List<ProductView> findViews(Specification<Product> spec, Sort sort, int limit);
+
+    // For each group, how many products match both spec and the group, in one aggregate query
+    long[] countEach(Specification<Product> spec, List<Specification<Product>> groups);
+}
@@ -0,0 +1,83 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.ProductSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+public class ProductViewRepositoryImpl implements ProductViewRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<ProductView> findViewById(UUID id) {
+        Specification<Product> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return findViews(byId, Sort.unsorted(), 1).stream().findFirst();
+    }
+
+    @Override
+    public List<ProductView> findViews(Specification<Product> spec, Sort sort, int limit) {
+        return ViewQueries.select(entityManager, Product.class, ProductViewRepositoryImpl::columns,
+            ProductViewRepositoryImpl::toView, spec, sort, limit);
+    }
+
+    @Override
+    public long[] countEach(Specification<Product> spec, List<Specification<Product>> groups) {
+        ViewQueries.Columns<Product> sums = (root, query, cb) -> groups.stream()
+            .<Selection<?>>map(group -> {
+                Predicate predicate = group.toPredicate(root, query, cb);
+                return predicate == null
+                    ? cb.count(root)
+                    : cb.sum(cb.<Long>selectCase().when(predicate, cb.literal(1L)).otherwise(cb.literal(0L)));
+            })
+            .toList();
+        Function<Tuple, long[]> counts = tuple -> IntStream.range(0, groups.size())
+            .mapToLong(i -> ViewQueries.longValue(tuple, i))
+            .toArray();
+        return ViewQueries.select(entityManager, Product.class, sums, counts, spec, Sort.unsorted(), 1).get(0);
+    }
+
+    private static List<Selection<?>> columns(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return List.of(
+            root.get("id"),
+            root.get("name"),
+            root.get("description"),
+            root.get("price"),
+            ProductSpecification.stock(root, query, cb),
+            root.get("stockShards"),
+            root.get("createdAt"),
+            root.get("version")
+        );
+    }
+
+    private static ProductView toView(Tuple tuple) {
+        return new ProductView(
+            tuple.get(0, UUID.class),
+            tuple.get(1, String.class),
+            tuple.get(2, String.class),
+            tuple.get(3, BigDecimal.class),
+            ViewQueries.intValue(tuple, 4),
+            ViewQueries.intValue(tuple, 5),
+            tuple.get(6, LocalDateTime.class),
+            tuple.get(7, Long.class)
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.gardiyan.oms.repository;
+
+import com.gardiyan.oms.model.StockReservation;
+import com.gardiyan.oms.repository.projection.ReservationExpiry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+    // Plain FOR UPDATE: the H2 dialect renders PESSIMISTIC_WRITE as FOR NO KEY UPDATE, which H2 2.2 rejects
+    @Query(value = "SELECT * FROM stock_reservations WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<StockReservation> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("SELECT r.id AS id, r.expiresAt AS expiresAt FROM StockReservation r")
+    List<ReservationExpiry> findAllExpiries();
+}
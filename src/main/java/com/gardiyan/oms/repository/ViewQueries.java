@@ -0,0 +1,67 @@
+package com.gardiyan.oms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Scalar reads for the *ViewRepository fragments. Rows come back as tuples, so nothing enters the persistence
+// context and there is nothing to dirty-check; callers run them in read-only transactions, which also switch
+// the session to FlushMode.MANUAL.
+final class ViewQueries {
+
+    @FunctionalInterface
+    interface Columns<E> {
+        List<Selection<?>> select(Root<E> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+    }
+
+    private ViewQueries() {
+    }
+
+    static <E, V> List<V> select(EntityManager entityManager, Class<E> type, Columns<E> columns,
+                                 Function<Tuple, V> mapper, Specification<E> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(type);
+        query.multiselect(columns.select(root, query, cb));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        // A list rather than a stream: outside a transaction the shared EntityManager releases the connection as
+        // soon as the query returns, before a stream could be read
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList()
+            .stream()
+            .map(mapper)
+            .toList();
+    }
+
+    // Aggregates such as SUM come back as Long on some dialects and Integer on others
+    static int intValue(Tuple tuple, int index) {
+        Number value = (Number) tuple.get(index);
+        return value == null ? 0 : value.intValue();
+    }
+
+    static long longValue(Tuple tuple, int index) {
+        Number value = (Number) tuple.get(index);
+        return value == null ? 0 : value.longValue();
+    }
+}
@@ -0,0 +1,8 @@
+package com.gardiyan.oms.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record CustomerView(UUID id, String firstName, String lastName, String email, String phone,
+                           LocalDateTime createdAt, long version) {
+}
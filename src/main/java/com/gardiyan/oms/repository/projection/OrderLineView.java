@@ -0,0 +1,11 @@
+package com.gardiyan.oms.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One order item joined with its order; the item columns are null for an order without items
+public record OrderLineView(UUID orderId, UUID customerId, BigDecimal totalAmount, LocalDateTime createdAt,
+                            Long version, UUID itemId, UUID productId, Integer quantity, BigDecimal price,
+                            BigDecimal itemTotalPrice) {
+}
@@ -0,0 +1,8 @@
+package com.gardiyan.oms.repository.projection;
+
+import java.util.UUID;
+
+public interface ProductSales {
+    UUID getProductId();
+    Long getUnitsSold();
+}
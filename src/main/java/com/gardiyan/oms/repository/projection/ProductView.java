@@ -0,0 +1,10 @@
+package com.gardiyan.oms.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// The columns a ProductDTO is built from; stockQuantity is already the shard total for sharded products
+public record ProductView(UUID id, String name, String description, BigDecimal price, int stockQuantity,
+                          int stockShards, LocalDateTime createdAt, long version) {
+}
@@ -0,0 +1,9 @@
+package com.gardiyan.oms.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ReservationExpiry {
+    UUID getId();
+    LocalDateTime getExpiresAt();
+}
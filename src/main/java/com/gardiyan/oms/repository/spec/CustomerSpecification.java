@@ -1,43 +1,56 @@
 package com.gardiyan.oms.repository.spec;
 
 import com.gardiyan.oms.model.Customer;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.ArrayList;
+import java.util.List;
+
+// Name and phone filters match as CustomerSearchIndex does, so a search gives the same results either way
 public class CustomerSpecification {
+    // Separators that occur in stored names; the index splits on any character that is not a letter or digit
+    private static final List<String> WORD_SEPARATORS = List.of(" ", "-", "'", ".");
+    private static final List<String> PHONE_FORMATTING = List.of(" ", "-", "(", ")", "+", ".");
     
     public static Specification<Customer> hasEmail(String email) {
         return (root, query, cb) -> {
             if (email == null) {
                 return null;
             }
-            return cb.equal(root.get("email"), email);
+            // Expects a normalized email; legacy rows may still be mixed-case
+            return cb.equal(cb.lower(root.get("email")), email);
         };
     }
-    
-    public static Specification<Customer> firstNameContains(String firstName) {
-        return (root, query, cb) -> {
-            if (firstName == null) {
-                return null;
-            }
-            return cb.like(cb.lower(root.get("firstName")), "%" + firstName.toLowerCase() + "%");
-        };
+
+    // A word of the first or last name starts with word, which must be lower-cased letters and digits
+    public static Specification<Customer> nameHasWordStartingWith(String word) {
+        return (root, query, cb) -> cb.or(
+            wordStartsWith(cb, root.get("firstName"), word),
+            wordStartsWith(cb, root.get("lastName"), word)
+        );
     }
-    
-    public static Specification<Customer> lastNameContains(String lastName) {
+
+    // The phone's digits end with digits, however the phone is formatted
+    public static Specification<Customer> phoneEndsWith(String digits) {
         return (root, query, cb) -> {
-            if (lastName == null) {
-                return null;
+            Expression<String> stripped = root.get("phone");
+            for (String formatting : PHONE_FORMATTING) {
+                stripped = cb.function("replace", String.class, stripped, cb.literal(formatting), cb.literal(""));
             }
-            return cb.like(cb.lower(root.get("lastName")), "%" + lastName.toLowerCase() + "%");
+            return cb.like(stripped, "%" + digits);
         };
     }
-    
-    public static Specification<Customer> phoneContains(String phone) {
-        return (root, query, cb) -> {
-            if (phone == null) {
-                return null;
-            }
-            return cb.like(root.get("phone"), "%" + phone + "%");
-        };
+
+    private static Predicate wordStartsWith(CriteriaBuilder cb, Expression<String> field, String word) {
+        Expression<String> lower = cb.lower(field);
+        List<Predicate> starts = new ArrayList<>();
+        starts.add(cb.like(lower, word + "%"));
+        for (String separator : WORD_SEPARATORS) {
+            starts.add(cb.like(lower, "%" + separator + word + "%"));
+        }
+        return cb.or(starts.toArray(Predicate[]::new));
     }
-} 
\ No newline at end of file
+}
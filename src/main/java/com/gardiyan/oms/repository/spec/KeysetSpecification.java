@@ -0,0 +1,38 @@
+package com.gardiyan.oms.repository.spec;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Keyset paging over (createdAt, id), with id as the tiebreak; every paged entity declares an index on (created_at, id)
+public class KeysetSpecification {
+
+    public static final Sort ORDER = order(Sort.Direction.ASC);
+
+    public static Sort order(Sort.Direction direction) {
+        return Sort.by(direction, "createdAt", "id");
+    }
+
+    public static <T> Specification<T> after(LocalDateTime createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+            cb.greaterThan(root.get("createdAt"), createdAt),
+            cb.and(
+                cb.equal(root.get("createdAt"), createdAt),
+                cb.greaterThan(root.get("id"), id)
+            )
+        );
+    }
+
+    // The keyset condition for a page in descending order: rows that sort before the cursor
+    public static <T> Specification<T> before(LocalDateTime createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+            cb.lessThan(root.get("createdAt"), createdAt),
+            cb.and(
+                cb.equal(root.get("createdAt"), createdAt),
+                cb.lessThan(root.get("id"), id)
+            )
+        );
+    }
+}
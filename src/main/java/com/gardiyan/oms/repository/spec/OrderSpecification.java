@@ -1,6 +1,11 @@
 package com.gardiyan.oms.repository.spec;
 
+import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.model.Order;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -24,12 +29,23 @@ public class OrderSpecification {
                 return null;
             }
             String pattern = "%" + customerName.toLowerCase() + "%";
+            From<Order, Customer> customer = customer(root);
             return cb.or(
-                cb.like(cb.lower(root.get("customer").get("firstName")), pattern),
-                cb.like(cb.lower(root.get("customer").get("lastName")), pattern)
+                cb.like(cb.lower(customer.get("firstName")), pattern),
+                cb.like(cb.lower(customer.get("lastName")), pattern)
             );
         };
     }
+
+    // One explicit inner join per query, shared by every customer filter, rather than an implicit join per path
+    @SuppressWarnings("unchecked")
+    private static From<Order, Customer> customer(Root<Order> root) {
+        return root.getJoins().stream()
+            .filter(join -> join.getAttribute().getName().equals("customer") && join.getJoinType() == JoinType.INNER)
+            .map(join -> (Join<Order, Customer>) join)
+            .findFirst()
+            .orElseGet(() -> root.join("customer", JoinType.INNER));
+    }
     
     public static Specification<Order> createdBetween(LocalDateTime startDate, LocalDateTime endDate) {
         return (root, query, cb) -> {
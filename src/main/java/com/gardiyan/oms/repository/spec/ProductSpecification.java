@@ -1,6 +1,12 @@
 package com.gardiyan.oms.repository.spec;
 
 import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.model.ProductStockShard;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -16,6 +22,15 @@ public class ProductSpecification {
         };
     }
     
+    public static Specification<Product> nameStartsWith(String prefix) {
+        return (root, query, cb) -> {
+            if (prefix == null) {
+                return null;
+            }
+            return cb.like(cb.lower(root.get("name")), prefix.toLowerCase() + "%");
+        };
+    }
+    
     public static Specification<Product> descriptionContains(String description) {
         return (root, query, cb) -> {
             if (description == null) {
@@ -45,7 +60,7 @@ public class ProductSpecification {
             if (minStock == null) {
                 return null;
             }
-            return cb.greaterThanOrEqualTo(root.get("stockQuantity"), minStock);
+            return cb.greaterThanOrEqualTo(stock(root, query, cb), minStock);
         };
     }
     
@@ -54,7 +69,19 @@ public class ProductSpecification {
             if (maxStock == null) {
                 return null;
             }
-            return cb.lessThan(root.get("stockQuantity"), maxStock);
+            return cb.lessThan(stock(root, query, cb), maxStock);
         };
     }
+
+    // stock_quantity, or the shard total for products whose stock is sharded
+    public static Expression<Integer> stock(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Subquery<Integer> shardTotal = query.subquery(Integer.class);
+        Root<ProductStockShard> shard = shardTotal.from(ProductStockShard.class);
+        shardTotal.select(cb.coalesce(cb.sum(shard.<Integer>get("quantity")), 0))
+            .where(cb.equal(shard.get("productId"), root.get("id")));
+
+        return cb.<Integer>selectCase()
+            .when(cb.greaterThan(root.<Integer>get("stockShards"), 0), shardTotal)
+            .otherwise(root.<Integer>get("stockQuantity"));
+    }
 } 
\ No newline at end of file
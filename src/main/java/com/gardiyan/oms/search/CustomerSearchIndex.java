@@ -0,0 +1,237 @@
+package com.gardiyan.oms.search;
+
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Every customer held in memory, with three lookups: name words by prefix ({@code "jo do"} finds John Doe),
+ * phone numbers by their trailing digits whatever the formatting, and emails by their normalized form. Filters
+ * combine with AND, as in the database search.
+ *
+ * <p>The index is loaded once the application is ready and then follows each committed create, update and
+ * delete. Until the load finishes, {@link #isReady()} is false and callers should search the database instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oms.search.customers.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadBatchSize;
+    private final ConcurrentMap<UUID, CustomerView> customers = new ConcurrentHashMap<>();
+    // Keyed by lower-cased name word; a prefix query is a range scan
+    private final ConcurrentNavigableMap<String, Set<UUID>> nameWords = new ConcurrentSkipListMap<>();
+    // Keyed by the phone's digits in reverse, so a suffix query is also a range scan
+    private final ConcurrentNavigableMap<String, Set<UUID>> reversedPhones = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, UUID> emails = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Guards ready and pendingChanges; changes committed during the load are re-read once it finishes
+    private final Object updates = new Object();
+    private final Set<UUID> pendingChanges = new HashSet<>();
+
+    public CustomerSearchIndex(CustomerRepository customerRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${oms.search.customers.load-batch-size:1000}") int loadBatchSize) {
+        this.customerRepository = customerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.nanoTime();
+        Specification<Customer> after = null;
+        List<CustomerView> batch;
+        do {
+            batch = loadBatch(after);
+            batch.forEach(this::put);
+            if (!batch.isEmpty()) {
+                CustomerView last = batch.get(batch.size() - 1);
+                after = KeysetSpecification.after(last.createdAt(), last.id());
+            }
+        } while (batch.size() == loadBatchSize);
+
+        // A batch may have been read before a change to one of its customers committed, deletes included
+        synchronized (updates) {
+            pendingChanges.forEach(this::refresh);
+            pendingChanges.clear();
+            ready = true;
+        }
+        log.info("Customer search index loaded {} customers in {} ms", customers.size(),
+            (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Startup has no transaction of its own, so each batch is read in a short read-only one
+    private List<CustomerView> loadBatch(Specification<Customer> after) {
+        return readOnlyTransaction.execute(status ->
+            customerRepository.findViews(after, KeysetSpecification.ORDER, loadBatchSize));
+    }
+
+    // After commit, so a rolled-back change never reaches the index
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        synchronized (updates) {
+            if (ready) {
+                refresh(event.customerId());
+            } else {
+                pendingChanges.add(event.customerId());
+            }
+        }
+    }
+
+    /**
+     * The customers matching every given filter, in no particular order; empty when no filter has anything to
+     * match on, since that is a plain listing the database pages better.
+     */
+    public Optional<Collection<CustomerView>> search(String name, String email, String phone) {
+        Set<UUID> ids = null;
+        for (String word : words(name)) {
+            ids = retain(ids, byPrefix(nameWords, word));
+        }
+        String digits = digits(phone);
+        if (!digits.isEmpty()) {
+            ids = retain(ids, byPrefix(reversedPhones, reverse(digits)));
+        }
+        String normalizedEmail = CustomerCache.normalizeEmail(email);
+        if (normalizedEmail != null && !normalizedEmail.isEmpty()) {
+            UUID id = emails.get(normalizedEmail);
+            ids = retain(ids, id == null ? Set.of() : Set.of(id));
+        }
+        if (ids == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ids.stream().map(customers::get).filter(Objects::nonNull).toList());
+    }
+
+    private void refresh(UUID id) {
+        customerRepository.findViewById(id).ifPresentOrElse(this::put, () -> remove(id));
+    }
+
+    // Writes are rare and serialized, so the postings never see two updates of one customer interleave
+    private synchronized void put(CustomerView view) {
+        CustomerView previous = customers.get(view.id());
+        if (previous != null && previous.version() > view.version()) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        customers.put(view.id(), view);
+        words(view.firstName() + " " + view.lastName()).forEach(word -> add(nameWords, word, view.id()));
+        String digits = digits(view.phone());
+        if (!digits.isEmpty()) {
+            add(reversedPhones, reverse(digits), view.id());
+        }
+        if (view.email() != null) {
+            emails.put(CustomerCache.normalizeEmail(view.email()), view.id());
+        }
+    }
+
+    private synchronized void remove(UUID id) {
+        CustomerView previous = customers.remove(id);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void unindex(CustomerView view) {
+        words(view.firstName() + " " + view.lastName()).forEach(word -> drop(nameWords, word, view.id()));
+        String digits = digits(view.phone());
+        if (!digits.isEmpty()) {
+            drop(reversedPhones, reverse(digits), view.id());
+        }
+        if (view.email() != null) {
+            emails.remove(CustomerCache.normalizeEmail(view.email()), view.id());
+        }
+    }
+
+    private static void add(ConcurrentNavigableMap<String, Set<UUID>> postings, String key, UUID id) {
+        postings.computeIfAbsent(key, ignored -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static void drop(ConcurrentNavigableMap<String, Set<UUID>> postings, String key, UUID id) {
+        Set<UUID> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(key, ids);
+            }
+        }
+    }
+
+    private static Set<UUID> byPrefix(ConcurrentNavigableMap<String, Set<UUID>> postings, String prefix) {
+        Set<UUID> ids = new HashSet<>();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private static Set<UUID> retain(Set<UUID> ids, Set<UUID> matches) {
+        if (ids == null) {
+            return new HashSet<>(matches);
+        }
+        ids.retainAll(matches);
+        return ids;
+    }
+
+    // Lower-cased words of letters and digits, as names are indexed and queried
+    public static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Stream.of(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+            .filter(word -> !word.isEmpty())
+            .distinct()
+            .toList();
+    }
+
+    // Phones are indexed and queried by their digits alone
+    public static String digits(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        phone.chars().filter(Character::isDigit).forEach(digits::appendCodePoint);
+        return digits.toString();
+    }
+
+    private static String reverse(String digits) {
+        return new StringBuilder(digits).reverse().toString();
+    }
+}
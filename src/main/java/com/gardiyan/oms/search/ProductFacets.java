@@ -0,0 +1,78 @@
+package com.gardiyan.oms.search;
+
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.spec.ProductSpecification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The bands product search results are counted in: price bands split at {@code price-band-bounds}, and stock
+ * bands of out of stock, low (below {@code low-stock-threshold}) and plenty. Every band is built from the
+ * {@link ProductSpecification} predicates the search filters use, so the bands and the filters cannot disagree
+ * on where a product belongs.
+ */
+@Component
+public class ProductFacets {
+    private final List<BigDecimal> priceBounds;
+    private final int lowStockThreshold;
+    private final List<Specification<Product>> bands = new ArrayList<>();
+
+    public ProductFacets(@Value("${oms.search.facets.price-band-bounds:25,50,100,250,500}") List<BigDecimal> priceBounds,
+                         @Value("${oms.search.facets.low-stock-threshold:10}") int lowStockThreshold) {
+        this.priceBounds = priceBounds.stream().sorted().distinct().toList();
+        this.lowStockThreshold = lowStockThreshold;
+
+        // price >= lower AND NOT price >= upper, as priceBetween has no exclusive bound
+        BigDecimal lower = null;
+        for (BigDecimal upper : this.priceBounds) {
+            bands.add(Specification.where(ProductSpecification.priceBetween(lower, null))
+                .and(Specification.not(ProductSpecification.priceBetween(upper, null))));
+            lower = upper;
+        }
+        bands.add(ProductSpecification.priceBetween(lower, null));
+
+        bands.add(ProductSpecification.hasStockLessThan(1));
+        bands.add(Specification.where(ProductSpecification.stockGreaterThanOrEqual(1))
+            .and(ProductSpecification.hasStockLessThan(lowStockThreshold)));
+        bands.add(ProductSpecification.stockGreaterThanOrEqual(lowStockThreshold));
+    }
+
+    /**
+     * Every band, price bands in ascending order and then the three stock bands; pass with the search filter to
+     * {@code ProductRepository.countEach}.
+     */
+    public List<Specification<Product>> bands() {
+        return bands;
+    }
+
+    // Ascending and distinct
+    public List<BigDecimal> priceBounds() {
+        return priceBounds;
+    }
+
+    public int lowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public ProductFacetsDTO toDTO(long[] counts) {
+        List<ProductFacetsDTO.PriceBand> priceBands = new ArrayList<>(priceBounds.size() + 1);
+        for (int i = 0; i <= priceBounds.size(); i++) {
+            priceBands.add(new ProductFacetsDTO.PriceBand(i == 0 ? null : priceBounds.get(i - 1),
+                i == priceBounds.size() ? null : priceBounds.get(i), counts[i]));
+        }
+
+        int stock = priceBounds.size() + 1;
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        facets.setPriceBands(priceBands);
+        facets.setOutOfStock(counts[stock]);
+        facets.setLowStock(counts[stock + 1]);
+        facets.setPlentyStock(counts[stock + 2]);
+        return facets;
+    }
+}
@@ -0,0 +1,505 @@
+package com.gardiyan.oms.search;
+
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToLongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Price and stock filters over the whole catalog, answered from compressed bitmaps. Every product gets a dense
+ * ordinal and sits in one bitmap per price bucket (split at {@code price-bucket-bounds} and the facet bounds) and
+ * one per stock band (split at {@code stock-band-bounds}, 1 and the facet low-stock threshold). A range is the OR
+ * of the buckets it covers, with only the members of the one or two buckets it cuts through checked one by one;
+ * price and stock ranges are then ANDed. Facet bounds are bucket bounds, so facet counts never check a product.
+ *
+ * <p>Ordinals follow (createdAt, id) order as loaded, so a page of matches is a scan from the cursor's ordinal.
+ * A product committed behind a newer one is kept aside and merged in on read. The index is loaded once the
+ * application is ready and then follows every committed catalog and stock change. Until the load finishes,
+ * {@link #isReady()} is false and callers should query the database instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oms.search.filter-index.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductFilterIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ProductRepository productRepository;
+    private final ProductFacets productFacets;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadBatchSize;
+    // Bucket i holds values from bounds[i - 1] up to but excluding bounds[i]; prices are in cents
+    private final long[] priceBounds;
+    private final RoaringBitmap[] priceBuckets;
+    private final long[] stockBounds;
+    private final RoaringBitmap[] stockBuckets;
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    // Ordinals assigned in key order, and those assigned to a product older than the newest one (ordered on read)
+    private final RoaringBitmap sequenced = new RoaringBitmap();
+    private final RoaringBitmap late = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes reading and applying changes, so an older read is never applied over a newer one
+    private final Object updates = new Object();
+    private final Set<UUID> pendingChanges = new HashSet<>();
+
+    // Per ordinal; an ordinal is never reused, so a deleted product just leaves every bucket
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private int size;
+    // Open-addressed id -> ordinal + 1 (0 is empty), at most half full; ids are compared through idHigh and idLow
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private volatile boolean ready;
+
+    public ProductFilterIndex(ProductRepository productRepository, ProductFacets productFacets,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${oms.search.filter-index.price-bucket-bounds:1,5,10,20,50,100,200,500,1000,2000,5000}")
+                              List<BigDecimal> priceBucketBounds,
+                              @Value("${oms.search.filter-index.stock-band-bounds:5,10,25,50,100,500,1000}")
+                              List<Integer> stockBandBounds,
+                              @Value("${oms.search.filter-index.load-batch-size:1000}") int loadBatchSize) {
+        this.productRepository = productRepository;
+        this.productFacets = productFacets;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadBatchSize = loadBatchSize;
+        this.priceBounds = LongStream.concat(
+                priceBucketBounds.stream().mapToLong(ProductFilterIndex::ceilingCents),
+                productFacets.priceBounds().stream().mapToLong(ProductFilterIndex::ceilingCents))
+            .sorted().distinct().toArray();
+        this.stockBounds = LongStream.concat(stockBandBounds.stream().mapToLong(Integer::longValue),
+                LongStream.of(1, Math.max(1, productFacets.lowStockThreshold())))
+            .sorted().distinct().toArray();
+        this.priceBuckets = bitmaps(priceBounds.length + 1);
+        this.stockBuckets = bitmaps(stockBounds.length + 1);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.nanoTime();
+        synchronized (updates) {
+            lock.writeLock().lock();
+            try {
+                // A reload starts over, so nothing deleted behind the index's back lingers; callers fall back meanwhile
+                ready = false;
+                clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Specification<Product> after = null;
+        List<ProductView> batch;
+        do {
+            batch = loadBatch(after);
+            lock.writeLock().lock();
+            try {
+                batch.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                ProductView last = batch.get(batch.size() - 1);
+                after = KeysetSpecification.after(last.createdAt(), last.id());
+            }
+        } while (batch.size() == loadBatchSize);
+
+        synchronized (updates) {
+            Map<UUID, ProductView> views = pendingChanges.isEmpty() ? Map.of() : views(pendingChanges);
+            lock.writeLock().lock();
+            try {
+                apply(pendingChanges, views);
+                pendingChanges.clear();
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Product filter index loaded {} products in {} ms", all.getCardinality(),
+            (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Startup has no transaction of its own, so each batch is read in a short read-only one
+    private List<ProductView> loadBatch(Specification<Product> after) {
+        return readOnlyTransaction.execute(status ->
+            productRepository.findViews(after, KeysetSpecification.ORDER, loadBatchSize));
+    }
+
+    // After commit, so a rolled-back change never reaches the index; stock movements included
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (updates) {
+            Map<UUID, ProductView> views = ready ? views(event.productIds()) : Map.of();
+            lock.writeLock().lock();
+            try {
+                if (ready) {
+                    apply(event.productIds(), views);
+                } else {
+                    pendingChanges.addAll(event.productIds());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The products whose price and stock fall in the given ranges; null leaves that side open. Prices are compared
+     * at cent precision, the scale they are stored at.
+     */
+    public Matches match(BigDecimal minPrice, BigDecimal maxPrice, Integer minStock) {
+        long lowestPrice = minPrice == null ? Long.MIN_VALUE : ceilingCents(minPrice);
+        long highestPrice = maxPrice == null ? Long.MAX_VALUE : floorCents(maxPrice);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = minPrice == null && maxPrice == null
+                ? all.clone()
+                : range(priceBuckets, priceBounds, lowestPrice, highestPrice, ordinal -> prices[ordinal]);
+            if (minStock != null) {
+                matches.and(minStock == 1
+                    ? inStock
+                    : range(stockBuckets, stockBounds, minStock, Long.MAX_VALUE, ordinal -> stock[ordinal]));
+            }
+            return new Matches(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the matches after the given key (both null for the first), in (createdAt, id) order.
+     */
+    public List<Entry> list(Matches matches, LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Key after = afterId == null ? null : new Key(micros(afterCreatedAt), afterId.getMostSignificantBits(),
+                afterId.getLeastSignificantBits());
+
+            // Sequenced matches are already in order from the first one past the cursor
+            List<Integer> inOrder = new ArrayList<>(limit);
+            PeekableIntIterator candidates = matches.products.getIntIterator();
+            candidates.advanceIfNeeded(after == null ? 0 : firstSequencedAfter(after));
+            while (inOrder.size() < limit && candidates.hasNext()) {
+                int ordinal = candidates.next();
+                if (!late.contains(ordinal)) {
+                    inOrder.add(ordinal);
+                }
+            }
+
+            List<Integer> outOfOrder = new ArrayList<>();
+            IntIterator lateMatches = RoaringBitmap.and(matches.products, late).getIntIterator();
+            while (lateMatches.hasNext()) {
+                int ordinal = lateMatches.next();
+                if (after == null || compare(ordinal, after) > 0) {
+                    outOfOrder.add(ordinal);
+                }
+            }
+            outOfOrder.sort((a, b) -> compare(a, key(b)));
+
+            List<Entry> entries = new ArrayList<>(limit);
+            int i = 0;
+            int j = 0;
+            while (entries.size() < limit && (i < inOrder.size() || j < outOfOrder.size())) {
+                boolean takeInOrder = j == outOfOrder.size()
+                    || i < inOrder.size() && compare(inOrder.get(i), key(outOfOrder.get(j))) < 0;
+                int ordinal = takeInOrder ? inOrder.get(i++) : outOfOrder.get(j++);
+                entries.add(new Entry(new UUID(idHigh[ordinal], idLow[ordinal]), time(createdAt[ordinal])));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Price bands in ascending order, then out of stock, low and plenty, as ProductFacets.toDTO expects
+    public ProductFacetsDTO facets(Matches matches) {
+        List<BigDecimal> bands = productFacets.priceBounds();
+        long lowStock = Math.max(1, productFacets.lowStockThreshold());
+        long[] counts = new long[bands.size() + 4];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i <= bands.size(); i++) {
+                Long lower = i == 0 ? null : ceilingCents(bands.get(i - 1));
+                Long upper = i == bands.size() ? null : ceilingCents(bands.get(i));
+                counts[i] = count(matches.products, priceBuckets, priceBounds, lower, upper);
+            }
+            int stockBand = bands.size() + 1;
+            counts[stockBand] = count(matches.products, stockBuckets, stockBounds, null, 1L);
+            counts[stockBand + 1] = count(matches.products, stockBuckets, stockBounds, 1L, lowStock);
+            counts[stockBand + 2] = count(matches.products, stockBuckets, stockBounds, lowStock, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return productFacets.toDTO(counts);
+    }
+
+    private Map<UUID, ProductView> views(Collection<UUID> ids) {
+        Map<UUID, ProductView> views = new HashMap<>();
+        Specification<Product> byIds = (product, query, cb) -> product.get("id").in(ids);
+        productRepository.findViews(byIds, KeysetSpecification.ORDER, ids.size())
+            .forEach(view -> views.put(view.id(), view));
+        return views;
+    }
+
+    private void clear() {
+        Stream.of(priceBuckets, stockBuckets).flatMap(Arrays::stream).forEach(RoaringBitmap::clear);
+        Stream.of(all, inStock, sequenced, late).forEach(RoaringBitmap::clear);
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    private void apply(Collection<UUID> ids, Map<UUID, ProductView> views) {
+        for (UUID id : ids) {
+            ProductView view = views.get(id);
+            if (view != null) {
+                put(view);
+            } else {
+                remove(id);
+            }
+        }
+    }
+
+    private void put(ProductView view) {
+        int slot = slot(view.id().getMostSignificantBits(), view.id().getLeastSignificantBits());
+        int ordinal;
+        if (slots[slot] == 0) {
+            ordinal = assign(view);
+        } else {
+            ordinal = slots[slot] - 1;
+            unbucket(ordinal);
+        }
+        prices[ordinal] = floorCents(view.price());
+        stock[ordinal] = view.stockQuantity();
+
+        priceBuckets[bucket(priceBounds, prices[ordinal])].add(ordinal);
+        stockBuckets[bucket(stockBounds, stock[ordinal])].add(ordinal);
+        if (stock[ordinal] >= 1) {
+            inStock.add(ordinal);
+        }
+        all.add(ordinal);
+    }
+
+    private void remove(UUID id) {
+        int slot = slot(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slots[slot] != 0) {
+            unbucket(slots[slot] - 1);
+        }
+    }
+
+    private void unbucket(int ordinal) {
+        if (all.contains(ordinal)) {
+            priceBuckets[bucket(priceBounds, prices[ordinal])].remove(ordinal);
+            stockBuckets[bucket(stockBounds, stock[ordinal])].remove(ordinal);
+            inStock.remove(ordinal);
+            all.remove(ordinal);
+        }
+    }
+
+    private int assign(ProductView view) {
+        if (size == stock.length) {
+            int capacity = size * 2;
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            stock = Arrays.copyOf(stock, capacity);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                slots[slot(idHigh[ordinal], idLow[ordinal])] = ordinal + 1;
+            }
+        }
+
+        int ordinal = size++;
+        idHigh[ordinal] = view.id().getMostSignificantBits();
+        idLow[ordinal] = view.id().getLeastSignificantBits();
+        createdAt[ordinal] = micros(view.createdAt());
+        slots[slot(idHigh[ordinal], idLow[ordinal])] = ordinal + 1;
+
+        if (sequenced.isEmpty() || compare(sequenced.last(), key(ordinal)) < 0) {
+            sequenced.add(ordinal);
+        } else {
+            late.add(ordinal);
+        }
+        return ordinal;
+    }
+
+    // The slot holding the id, or the empty slot it would go in
+    private int slot(long high, long low) {
+        int mask = slots.length - 1;
+        int slot = Long.hashCode(high ^ low) & mask;
+        while (slots[slot] != 0) {
+            int ordinal = slots[slot] - 1;
+            if (idHigh[ordinal] == high && idLow[ordinal] == low) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // The smallest ordinal from which every sequenced ordinal sorts after the key
+    private int firstSequencedAfter(Key key) {
+        int count = sequenced.getCardinality();
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(sequenced.select(middle), key) > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low == count ? size : sequenced.select(low);
+    }
+
+    // Unsigned id order, which is how the database orders uuid columns
+    private int compare(int ordinal, Key key) {
+        int order = Long.compare(createdAt[ordinal], key.createdAt());
+        if (order == 0) {
+            order = Long.compareUnsigned(idHigh[ordinal], key.idHigh());
+        }
+        if (order == 0) {
+            order = Long.compareUnsigned(idLow[ordinal], key.idLow());
+        }
+        return order;
+    }
+
+    private Key key(int ordinal) {
+        return new Key(createdAt[ordinal], idHigh[ordinal], idLow[ordinal]);
+    }
+
+    // The whole buckets inside [lowest, highest], plus the members of the buckets it cuts through that fall inside
+    private static RoaringBitmap range(RoaringBitmap[] buckets, long[] bounds, long lowest, long highest,
+                                       IntToLongFunction value) {
+        RoaringBitmap matches = new RoaringBitmap();
+        if (lowest > highest) {
+            return matches;
+        }
+        for (int b = bucket(bounds, lowest); b <= bucket(bounds, highest); b++) {
+            long bucketLowest = b == 0 ? Long.MIN_VALUE : bounds[b - 1];
+            long bucketHighest = b == bounds.length ? Long.MAX_VALUE : bounds[b] - 1;
+            if (bucketLowest >= lowest && bucketHighest <= highest) {
+                matches.or(buckets[b]);
+                continue;
+            }
+            IntIterator members = buckets[b].getIntIterator();
+            while (members.hasNext()) {
+                int ordinal = members.next();
+                long v = value.applyAsLong(ordinal);
+                if (v >= lowest && v <= highest) {
+                    matches.add(ordinal);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Matches from lower up to but excluding upper, both bucket bounds (or null), so whole buckets are counted
+    private static long count(RoaringBitmap matches, RoaringBitmap[] buckets, long[] bounds, Long lower, Long upper) {
+        int first = lower == null ? 0 : bucket(bounds, lower);
+        int last = upper == null ? buckets.length - 1 : bucket(bounds, upper) - 1;
+        long count = 0;
+        for (int b = first; b <= last; b++) {
+            count += RoaringBitmap.andCardinality(matches, buckets[b]);
+        }
+        return count;
+    }
+
+    // The number of bounds at or below the value
+    private static int bucket(long[] bounds, long value) {
+        int index = Arrays.binarySearch(bounds, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static RoaringBitmap[] bitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime time(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long floorCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    private static long ceilingCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    private record Key(long createdAt, long idHigh, long idLow) {
+    }
+
+    /**
+     * A listed product with the creation time the index holds for it, at microsecond precision.
+     */
+    public record Entry(UUID id, LocalDateTime createdAt) {
+    }
+
+    /**
+     * A filter's matching products, taken at the time of {@link #match}; later changes do not alter it.
+     */
+    public static final class Matches {
+        private final RoaringBitmap products;
+
+        private Matches(RoaringBitmap products) {
+            this.products = products;
+        }
+
+        public long count() {
+            return products.getLongCardinality();
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.gardiyan.oms.search;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-process Lucene index over product name and description. Queries match every term, as a whole word or a
+ * prefix, in either field, with name matches ranked higher; a price range can be applied as a filter. Stock is
+ * not indexed, since it changes on every order, so callers filter stock against the database.
+ *
+ * <p>The index is rebuilt from the database once the application is ready and then follows catalog changes
+ * (create, update, delete) after they commit. Searches see changes within {@code refresh-interval-ms}. Until the
+ * first rebuild finishes, {@link #isReady()} is false and callers should search the database instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oms.search.products.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSearchIndex {
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String PRICE = "price";
+    private static final Sort RANKING = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.STRING));
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int rebuildBatchSize;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    // Guards rebuilding and pendingChanges; changes committed during a rebuild are re-read once it finishes
+    private final Object updates = new Object();
+    private final Set<UUID> pendingChanges = new HashSet<>();
+    private boolean rebuilding;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${oms.search.products.index-dir:}") String indexDir,
+                              @Value("${oms.search.products.rebuild-batch-size:1000}") int rebuildBatchSize)
+            throws IOException {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        // The index is derived data and is rebuilt at every start, so whatever is on disk is discarded
+        this.writer = new IndexWriter(directory,
+            new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws IOException {
+        long startedAt = System.nanoTime();
+        synchronized (updates) {
+            rebuilding = true;
+            writer.deleteAll();
+        }
+
+        Specification<Product> after = null;
+        long indexed = 0;
+        List<ProductView> batch;
+        do {
+            batch = loadBatch(after);
+            for (ProductView view : batch) {
+                writer.addDocument(document(view));
+            }
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                ProductView last = batch.get(batch.size() - 1);
+                after = KeysetSpecification.after(last.createdAt(), last.id());
+            }
+        } while (batch.size() == rebuildBatchSize);
+
+        // A batch may have been read before a change to one of its products committed, so those are read again
+        synchronized (updates) {
+            if (!pendingChanges.isEmpty()) {
+                reindex(pendingChanges);
+                pendingChanges.clear();
+            }
+            rebuilding = false;
+        }
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        ready = true;
+        log.info("Product search index rebuilt with {} products in {} ms", indexed,
+            (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Startup has no transaction of its own, so each batch is read in a short read-only one
+    private List<ProductView> loadBatch(Specification<Product> after) {
+        return readOnlyTransaction.execute(status ->
+            productRepository.findViews(after, KeysetSpecification.ORDER, rebuildBatchSize));
+    }
+
+    // After commit, so a rolled-back change never reaches the index; stock movements are ignored
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.catalogChanged()) {
+            return;
+        }
+        synchronized (updates) {
+            if (rebuilding) {
+                pendingChanges.addAll(event.productIds());
+            } else {
+                reindex(event.productIds());
+            }
+        }
+    }
+
+    public void reindex(Collection<UUID> ids) {
+        Specification<Product> byIds = (root, query, cb) -> root.get("id").in(ids);
+        List<ProductView> views = productRepository.findViews(byIds, KeysetSpecification.ORDER, ids.size());
+        Set<UUID> deleted = new HashSet<>(ids);
+        try {
+            for (ProductView view : views) {
+                writer.updateDocument(idTerm(view.id()), document(view));
+                deleted.remove(view.id());
+            }
+            for (UUID id : deleted) {
+                writer.deleteDocuments(idTerm(id));
+            }
+        } catch (IOException ex) {
+            log.error("Could not update the product search index for {}", ids, ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oms.search.products.refresh-interval-ms:100}")
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Runs {@code listener} after each refresh that made new changes searchable.
+     */
+    public void onRefresh(Runnable listener) {
+        searcherManager.addListener(new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    listener.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Up to {@code limit} matches for {@code text}, best first, starting after {@code after} (null for the first).
+     * The price range is applied at cent precision and may let through products a fraction of a cent outside it.
+     */
+    public List<Hit> search(String text, BigDecimal minPrice, BigDecimal maxPrice, Hit after, int limit) {
+        Query query = query(text, minPrice, maxPrice);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] docs = searcher.searchAfter(position(after, searcher), query, limit, RANKING, false).scoreDocs;
+                List<Hit> hits = new ArrayList<>(docs.length);
+                for (ScoreDoc doc : docs) {
+                    Object[] fields = ((FieldDoc) doc).fields;
+                    hits.add(new Hit(UUID.fromString(((BytesRef) fields[1]).utf8ToString()), (Float) fields[0]));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public int count(String text, BigDecimal minPrice, BigDecimal maxPrice) {
+        Query query = query(text, minPrice, maxPrice);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.count(query);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // The sort fields already order every document, so the doc id only matters when they tie, which is the cursor's
+    // own document; the last valid doc id keeps that one out, where anything past it is rejected by searchAfter
+    private static ScoreDoc position(Hit after, IndexSearcher searcher) {
+        if (after == null) {
+            return null;
+        }
+        return new FieldDoc(searcher.getIndexReader().maxDoc() - 1, after.score(),
+            new Object[]{after.score(), new BytesRef(after.id().toString())});
+    }
+
+    private Query query(String text, BigDecimal minPrice, BigDecimal maxPrice) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return new MatchNoDocsQuery();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(NAME, term)), 4f), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(NAME, term)), 2f), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(DESCRIPTION, term)), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(DESCRIPTION, term)), 0.5f), BooleanClause.Occur.SHOULD)
+                .build(), BooleanClause.Occur.MUST);
+        }
+        if (minPrice != null || maxPrice != null) {
+            long lower = minPrice == null ? Long.MIN_VALUE : cents(minPrice);
+            long upper = maxPrice == null ? Long.MAX_VALUE : cents(maxPrice);
+            query.add(LongPoint.newRangeQuery(PRICE, lower, upper), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return terms;
+    }
+
+    private static Document document(ProductView view) {
+        Document document = new Document();
+        document.add(new StringField(ID, view.id().toString(), Field.Store.NO));
+        document.add(new SortedDocValuesField(ID, new BytesRef(view.id().toString())));
+        document.add(new TextField(NAME, view.name(), Field.Store.NO));
+        if (view.description() != null) {
+            document.add(new TextField(DESCRIPTION, view.description(), Field.Store.NO));
+        }
+        document.add(new LongPoint(PRICE, cents(view.price())));
+        return document;
+    }
+
+    // Floored on both the indexed price and the bounds, so the range never excludes a product that matches exactly
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    private static Term idTerm(UUID id) {
+        return new Term(ID, id.toString());
+    }
+
+    /**
+     * A ranked match; {@link #cursor()} resumes a search right after it.
+     */
+    public record Hit(UUID id, float score) {
+
+        public String cursor() {
+            String key = Integer.toHexString(Float.floatToIntBits(score)) + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Hit fromCursor(String cursor) {
+            try {
+                String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+                return new Hit(UUID.fromString(key[1]), Float.intBitsToFloat(Integer.parseUnsignedInt(key[0], 16)));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.gardiyan.oms.search;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.event.ProductsSoldEvent;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductSales;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Product name autocomplete. Names are held in a character trie cut off at {@code max-prefix-length}, where every
+ * node keeps its {@link #MAX_RESULTS} best sellers, so a suggestion is a walk down the prefix and a copy of at most
+ * that many entries. Longer prefixes filter the products under the deepest node.
+ *
+ * <p>Products rank by recent units sold. Sales over {@code sales-lookback} are loaded at startup, and each order
+ * placed afterwards adds its units at a weight that doubles every {@code sales-half-life}, so older sales count for
+ * progressively less without ever being revisited. Catalog changes and sales are applied after they commit. Until
+ * the first load finishes, {@link #isReady()} is false and callers should query the database instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oms.search.suggest.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSuggester {
+    public static final int MAX_RESULTS = 10;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Entry[] NONE = new Entry[0];
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble((Entry entry) -> -entry.score)
+        .thenComparing(entry -> entry.key)
+        .thenComparing(entry -> entry.id);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPrefixLength;
+    private final int loadBatchSize;
+    private final Duration salesLookback;
+    private final double salesHalfLifeMillis;
+    private final long epochMillis = System.currentTimeMillis();
+    // Readers only copy ranked arrays; writers change one product's path at a time
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Node root = new Node();
+    // Changes that commit while the catalog is being loaded, applied once it is in
+    private final Set<UUID> pendingChanges = new HashSet<>();
+    private final Map<UUID, Double> pendingSales = new HashMap<>();
+    private volatile boolean ready;
+
+    public ProductSuggester(ProductRepository productRepository,
+                            OrderRepository orderRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${oms.search.suggest.max-prefix-length:12}") int maxPrefixLength,
+                            @Value("${oms.search.suggest.load-batch-size:1000}") int loadBatchSize,
+                            @Value("${oms.search.suggest.sales-lookback:P30D}") Duration salesLookback,
+                            @Value("${oms.search.suggest.sales-half-life:P7D}") Duration salesHalfLife) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPrefixLength = maxPrefixLength;
+        this.loadBatchSize = loadBatchSize;
+        this.salesLookback = salesLookback;
+        this.salesHalfLifeMillis = salesHalfLife.toMillis();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.nanoTime();
+        Map<UUID, Double> sales = new HashMap<>();
+        List<ProductSales> unitsSold = readOnlyTransaction.execute(status ->
+            orderRepository.findUnitsSoldSince(LocalDateTime.now().minus(salesLookback)));
+        for (ProductSales row : unitsSold) {
+            sales.put(row.getProductId(), row.getUnitsSold().doubleValue());
+        }
+
+        // Ranked once at the end rather than path by path, which would redo the upper nodes for every product
+        Specification<Product> after = null;
+        List<ProductView> batch;
+        do {
+            batch = loadBatch(after);
+            lock.writeLock().lock();
+            try {
+                for (ProductView product : batch) {
+                    Entry entry = new Entry(product.id(), product.name(), sales.getOrDefault(product.id(), 0d));
+                    entries.put(entry.id, entry);
+                    List<Node> path = path(entry.key, true);
+                    path.get(path.size() - 1).add(entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                ProductView last = batch.get(batch.size() - 1);
+                after = KeysetSpecification.after(last.createdAt(), last.id());
+            }
+        } while (batch.size() == loadBatchSize);
+
+        lock.writeLock().lock();
+        try {
+            rankAll(root);
+            if (!pendingChanges.isEmpty()) {
+                apply(pendingChanges, views(pendingChanges));
+            }
+            pendingSales.forEach(this::addSales);
+            pendingChanges.clear();
+            pendingSales.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product suggester loaded {} products in {} ms", entries.size(),
+            (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Startup has no transaction of its own, so each batch is read in a short read-only one
+    private List<ProductView> loadBatch(Specification<Product> after) {
+        return readOnlyTransaction.execute(status ->
+            productRepository.findViews(after, KeysetSpecification.ORDER, loadBatchSize));
+    }
+
+    // Stock movements are ignored; only a new, renamed or deleted product changes the trie
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.catalogChanged()) {
+            return;
+        }
+        Map<UUID, ProductView> views = views(event.productIds());
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(event.productIds(), views);
+            } else {
+                pendingChanges.addAll(event.productIds());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsSold(ProductsSoldEvent event) {
+        double weight = Math.pow(2, (System.currentTimeMillis() - epochMillis) / salesHalfLifeMillis);
+        lock.writeLock().lock();
+        try {
+            event.quantities().forEach((id, units) -> {
+                if (ready) {
+                    addSales(id, units * weight);
+                } else {
+                    pendingSales.merge(id, units * weight, Double::sum);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #MAX_RESULTS}) products whose name starts with {@code prefix}, ignoring
+     * case and runs of whitespace, best sellers first.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : normalize(prefix).stripLeading();
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int depth = 0; depth < depth(key); depth++) {
+                node = node.child(key.charAt(depth));
+                if (node == null) {
+                    return List.of();
+                }
+            }
+            Stream<Entry> ranked = key.length() <= maxPrefixLength
+                ? Arrays.stream(node.top)
+                : node.entries.stream().filter(entry -> entry.key.startsWith(key)).sorted(RANKING);
+            return ranked.limit(Math.min(limit, MAX_RESULTS)).map(Entry::suggestion).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<UUID, ProductView> views(Collection<UUID> ids) {
+        Map<UUID, ProductView> views = new HashMap<>();
+        Specification<Product> byIds = (product, query, cb) -> product.get("id").in(ids);
+        productRepository.findViews(byIds, KeysetSpecification.ORDER, ids.size())
+            .forEach(view -> views.put(view.id(), view));
+        return views;
+    }
+
+    // Replaces each product's entry, carrying its sales over a rename
+    private void apply(Collection<UUID> ids, Map<UUID, ProductView> views) {
+        for (UUID id : ids) {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                List<Node> path = path(previous.key, false);
+                path.get(path.size() - 1).remove(previous);
+                rank(path);
+            }
+            ProductView view = views.get(id);
+            if (view != null) {
+                Entry entry = new Entry(id, view.name(), previous == null ? 0 : previous.score);
+                entries.put(id, entry);
+                List<Node> path = path(entry.key, true);
+                path.get(path.size() - 1).add(entry);
+                rank(path);
+            }
+        }
+    }
+
+    private void addSales(UUID id, double units) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            entry.score += units;
+            rank(path(entry.key, false));
+        }
+    }
+
+    private int depth(String key) {
+        return Math.min(key.length(), maxPrefixLength);
+    }
+
+    // The root and the node for every character of the key up to the trie's depth
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>(depth(key) + 1);
+        Node node = root;
+        path.add(node);
+        for (int depth = 0; depth < depth(key); depth++) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                if (!create) {
+                    break;
+                }
+                child = node.addChild(key.charAt(depth));
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Bottom-up, since each node's ranking is drawn from its children's
+    private void rank(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rank(path.get(i));
+        }
+    }
+
+    private void rankAll(Node node) {
+        for (Node child : node.children) {
+            rankAll(child);
+        }
+        rank(node);
+    }
+
+    private void rank(Node node) {
+        Entry[] best = new Entry[MAX_RESULTS];
+        int count = 0;
+        for (Entry entry : node.entries) {
+            count = offer(best, count, entry);
+        }
+        for (Node child : node.children) {
+            for (Entry entry : child.top) {
+                count = offer(best, count, entry);
+            }
+        }
+        node.top = Arrays.copyOf(best, count);
+    }
+
+    // Insertion into a sorted array that keeps only the best best.length entries
+    private static int offer(Entry[] best, int count, Entry entry) {
+        if (count == best.length && RANKING.compare(entry, best[count - 1]) >= 0) {
+            return count;
+        }
+        int i = count == best.length ? count - 1 : count;
+        while (i > 0 && RANKING.compare(entry, best[i - 1]) < 0) {
+            best[i] = best[i - 1];
+            i--;
+        }
+        best[i] = entry;
+        return count == best.length ? count : count + 1;
+    }
+
+    private static String normalize(String text) {
+        return WHITESPACE.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        // Names ending at this node; at the trie's depth, every name under it
+        private List<Entry> entries = List.of();
+        private Entry[] top = NONE;
+
+        private Node child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i < 0 ? null : children[i];
+        }
+
+        private Node addChild(char label) {
+            int i = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newLabels[i] = label;
+            newChildren[i] = new Node();
+            System.arraycopy(labels, i, newLabels, i + 1, labels.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[i];
+        }
+
+        private void add(Entry entry) {
+            if (entries.isEmpty()) {
+                entries = new ArrayList<>(1);
+            }
+            entries.add(entry);
+        }
+
+        private void remove(Entry entry) {
+            entries.remove(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final UUID id;
+        private final String name;
+        private final String key;
+        private double score;
+
+        private Entry(UUID id, String name, double score) {
+            this.id = id;
+            this.name = name;
+            this.key = normalize(name).strip();
+            this.score = score;
+        }
+
+        private Suggestion suggestion() {
+            return new Suggestion(id, name);
+        }
+    }
+
+    public record Suggestion(UUID id, String name) {
+    }
+}
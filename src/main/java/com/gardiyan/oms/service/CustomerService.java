@@ -1,18 +1,19 @@
 package com.gardiyan.oms.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
 
-import java.util.List;
 import java.util.UUID;
 
 public interface CustomerService {
     CustomerDTO createCustomer(CustomerCreateRequest request);
     CustomerDTO getCustomerById(UUID id);
-    List<CustomerDTO> getAllCustomers();
+    CursorPage<CustomerDTO> getAllCustomers(CursorRequest page);
     CustomerDTO updateCustomer(UUID id, CustomerUpdateRequest request);
     void deleteCustomer(UUID id);
-    List<CustomerDTO> searchCustomers(String name, String email, String phone);
+    CursorPage<CustomerDTO> searchCustomers(String name, String email, String phone, CursorRequest page);
     CustomerDTO getCustomerByEmail(String email);
 } 
\ No newline at end of file
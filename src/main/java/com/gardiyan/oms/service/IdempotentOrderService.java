@@ -0,0 +1,8 @@
+package com.gardiyan.oms.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+
+public interface IdempotentOrderService {
+    OrderDTO createOrder(String idempotencyKey, OrderCreateRequest request);
+}
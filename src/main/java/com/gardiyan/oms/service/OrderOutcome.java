@@ -0,0 +1,23 @@
+package com.gardiyan.oms.service;
+
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import lombok.Value;
+
+// Result of one order in a multi-order write: either the created order or the reason it was rejected
+@Value
+public class OrderOutcome {
+    OrderDTO order;
+    RuntimeException failure;
+
+    public static OrderOutcome created(OrderDTO order) {
+        return new OrderOutcome(order, null);
+    }
+
+    public static OrderOutcome rejected(RuntimeException failure) {
+        return new OrderOutcome(null, failure);
+    }
+
+    public boolean isCreated() {
+        return order != null;
+    }
+}
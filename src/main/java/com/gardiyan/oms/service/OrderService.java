@@ -1,16 +1,24 @@
 package com.gardiyan.oms.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface OrderService {
     OrderDTO createOrder(OrderCreateRequest request);
+    List<OrderBatchResult> createOrders(List<OrderCreateRequest> requests);
+    List<OrderOutcome> placeOrders(List<OrderCreateRequest> requests);
     OrderDTO getOrderById(UUID id);
-    List<OrderDTO> getAllOrders();
-    List<OrderDTO> getOrdersByCustomerId(UUID customerId);
+    long getOrderVersion(UUID id);
+    CursorPage<OrderDTO> getAllOrders(CursorRequest page);
+    CursorPage<OrderDTO> getOrdersByCustomerId(UUID customerId, CursorRequest page);
     void deleteOrder(UUID id);
-    List<OrderDTO> searchOrders(OrderSearchRequest request);
+    CursorPage<OrderDTO> searchOrders(OrderSearchRequest request, CursorRequest page);
+    long exportOrders(OrderSearchRequest request, Consumer<OrderDTO> sink);
 } 
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.gardiyan.oms.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
@@ -10,10 +14,14 @@ import java.util.UUID;
 public interface ProductService {
     ProductDTO createProduct(ProductCreateRequest request);
     ProductDTO getProductById(UUID id);
-    List<ProductDTO> getAllProducts();
+    CursorPage<ProductDTO> getAllProducts(CursorRequest page);
     ProductDTO updateProduct(UUID id, ProductUpdateRequest request);
     void deleteProduct(UUID id);
     ProductDTO updateStock(UUID id, int quantity);
-    List<ProductDTO> getProductsInStock();
-    List<ProductDTO> searchProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, Integer minStock);
+    ProductDTO enableStockSharding(UUID id, int shards);
+    ProductDTO disableStockSharding(UUID id);
+    CursorPage<ProductDTO> getProductsInStock(CursorRequest page);
+    ProductSearchPage searchProducts(String query, String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                     Integer minStock, boolean facets, CursorRequest page);
+    List<ProductSuggestionDTO> suggestProducts(String prefix, int limit);
 } 
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.gardiyan.oms.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.dto.response.order.ReservationDTO;
+import java.util.UUID;
+
+public interface ReservationService {
+    ReservationDTO reserve(OrderCreateRequest request);
+    OrderDTO confirm(UUID reservationId);
+    void release(UUID reservationId);
+}
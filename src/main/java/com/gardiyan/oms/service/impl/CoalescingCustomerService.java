@@ -0,0 +1,66 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
+import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.customer.CustomerDTO;
+import com.gardiyan.oms.service.CustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Runs concurrent identical customer reads once through {@link SingleFlight}; writes go straight to
+ * {@link CustomerServiceImpl}.
+ */
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "oms.single-flight.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingCustomerService implements CustomerService {
+    private final CustomerServiceImpl delegate;
+    private final SingleFlight singleFlight;
+
+    @Override
+    public CustomerDTO createCustomer(CustomerCreateRequest request) {
+        return delegate.createCustomer(request);
+    }
+
+    @Override
+    public CustomerDTO getCustomerById(UUID id) {
+        return singleFlight.execute(() -> delegate.getCustomerById(id),
+            SingleFlight.Table.CUSTOMERS, "getCustomerById", id);
+    }
+
+    @Override
+    public CursorPage<CustomerDTO> getAllCustomers(CursorRequest page) {
+        return singleFlight.execute(() -> delegate.getAllCustomers(page),
+            SingleFlight.Table.CUSTOMERS, "getAllCustomers", page);
+    }
+
+    @Override
+    public CustomerDTO updateCustomer(UUID id, CustomerUpdateRequest request) {
+        return delegate.updateCustomer(id, request);
+    }
+
+    @Override
+    public void deleteCustomer(UUID id) {
+        delegate.deleteCustomer(id);
+    }
+
+    @Override
+    public CursorPage<CustomerDTO> searchCustomers(String name, String email, String phone, CursorRequest page) {
+        return singleFlight.execute(() -> delegate.searchCustomers(name, email, phone, page),
+            SingleFlight.Table.CUSTOMERS, "searchCustomers", name, email, phone, page);
+    }
+
+    @Override
+    public CustomerDTO getCustomerByEmail(String email) {
+        return singleFlight.execute(() -> delegate.getCustomerByEmail(email),
+            SingleFlight.Table.CUSTOMERS, "getCustomerByEmail", email);
+    }
+}
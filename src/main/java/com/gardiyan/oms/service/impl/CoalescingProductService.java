@@ -0,0 +1,93 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
+import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
+import com.gardiyan.oms.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs concurrent identical product reads once through {@link SingleFlight}; writes go straight to
+ * {@link ProductServiceImpl}.
+ */
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "oms.single-flight.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingProductService implements ProductService {
+    private final ProductServiceImpl delegate;
+    private final SingleFlight singleFlight;
+
+    @Override
+    public ProductDTO createProduct(ProductCreateRequest request) {
+        return delegate.createProduct(request);
+    }
+
+    @Override
+    public ProductDTO getProductById(UUID id) {
+        return singleFlight.execute(() -> delegate.getProductById(id),
+            SingleFlight.Table.PRODUCTS, "getProductById", id);
+    }
+
+    @Override
+    public CursorPage<ProductDTO> getAllProducts(CursorRequest page) {
+        return singleFlight.execute(() -> delegate.getAllProducts(page),
+            SingleFlight.Table.PRODUCTS, "getAllProducts", page);
+    }
+
+    @Override
+    public ProductDTO updateProduct(UUID id, ProductUpdateRequest request) {
+        return delegate.updateProduct(id, request);
+    }
+
+    @Override
+    public void deleteProduct(UUID id) {
+        delegate.deleteProduct(id);
+    }
+
+    @Override
+    public ProductDTO updateStock(UUID id, int quantity) {
+        return delegate.updateStock(id, quantity);
+    }
+
+    @Override
+    public ProductDTO enableStockSharding(UUID id, int shards) {
+        return delegate.enableStockSharding(id, shards);
+    }
+
+    @Override
+    public ProductDTO disableStockSharding(UUID id) {
+        return delegate.disableStockSharding(id);
+    }
+
+    @Override
+    public CursorPage<ProductDTO> getProductsInStock(CursorRequest page) {
+        return singleFlight.execute(() -> delegate.getProductsInStock(page),
+            SingleFlight.Table.PRODUCTS, "getProductsInStock", page);
+    }
+
+    @Override
+    public ProductSearchPage searchProducts(String query, String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                            Integer minStock, boolean facets, CursorRequest page) {
+        return singleFlight.execute(
+            () -> delegate.searchProducts(query, name, minPrice, maxPrice, minStock, facets, page),
+            SingleFlight.Table.PRODUCTS, "searchProducts", query, name, minPrice, maxPrice, minStock, facets, page);
+    }
+
+    // An in-memory lookup, cheaper than coordinating with other callers
+    @Override
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        return delegate.suggestProducts(prefix, limit);
+    }
+}
@@ -0,0 +1,215 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+// Keyset pagination shared by the list and search methods of every service
+final class CursorPages {
+    static final int MAX_SIZE = 500;
+
+    // Reads at most limit rows matching spec in the given order
+    @FunctionalInterface
+    interface Finder<E, R> {
+        List<R> find(Specification<E> spec, Sort sort, int limit);
+    }
+
+    // Lists at most limit keys after the given key (both null for the first page), in (createdAt, id) order
+    @FunctionalInterface
+    interface IdLister {
+        List<Candidate> list(LocalDateTime createdAt, UUID id, int limit);
+    }
+
+    // A row's key as an index holds it, whether or not the row can still be read
+    record Candidate(LocalDateTime createdAt, UUID id) {
+    }
+
+    private CursorPages() {
+    }
+
+    /**
+     * Fetches one page of {@code filter} ordered by (createdAt, id). One extra row is read to tell whether
+     * another page follows, so no page ever needs an OFFSET or a count.
+     */
+    static <E, D> CursorPage<D> fetch(JpaSpecificationExecutor<E> repository, Specification<E> filter,
+                                      CursorRequest request, Function<E, LocalDateTime> createdAt,
+                                      Function<E, UUID> id, Function<E, D> mapper) {
+        return fetchAll(repository, filter, request, createdAt, id, rows -> rows.stream().map(mapper).toList());
+    }
+
+    /**
+     * Same as {@link #fetch} but maps the whole page at once, so associations can be loaded for every row in a
+     * single query instead of one per row.
+     */
+    static <E, D> CursorPage<D> fetchAll(JpaSpecificationExecutor<E> repository, Specification<E> filter,
+                                         CursorRequest request, Function<E, LocalDateTime> createdAt,
+                                         Function<E, UUID> id, Function<List<E>, List<D>> mapper) {
+        return fetchAll(repository, filter, request, Sort.Direction.ASC, createdAt, id, mapper);
+    }
+
+    /**
+     * Same as {@link #fetchAll} with (createdAt, id) in the given direction; cursors are only valid for the
+     * direction they were issued in.
+     */
+    static <E, D> CursorPage<D> fetchAll(JpaSpecificationExecutor<E> repository, Specification<E> filter,
+                                         CursorRequest request, Sort.Direction direction,
+                                         Function<E, LocalDateTime> createdAt, Function<E, UUID> id,
+                                         Function<List<E>, List<D>> mapper) {
+        Finder<E, E> finder = (spec, sort, limit) -> repository.findBy(spec, query -> query.sortBy(sort).limit(limit).all());
+        return page(filter, request, direction, finder, repository::count, createdAt, id, mapper);
+    }
+
+    /**
+     * Pages over projected rows rather than entities; {@code finder} selects the columns and {@code counter}
+     * answers {@code count=true}.
+     */
+    static <E, R, D> CursorPage<D> fetchViews(Specification<E> filter, CursorRequest request, Finder<E, R> finder,
+                                              Function<Specification<E>, Long> counter,
+                                              Function<R, LocalDateTime> createdAt, Function<R, UUID> id,
+                                              Function<R, D> mapper) {
+        return page(filter, request, Sort.Direction.ASC, finder, counter, createdAt, id,
+            rows -> rows.stream().map(mapper).toList());
+    }
+
+    /**
+     * Pages over rows already held in memory, with the same order and cursors as the queried pages. {@code rows}
+     * need not be sorted.
+     */
+    static <R, D> CursorPage<D> fromMemory(Collection<R> rows, CursorRequest request,
+                                           Function<R, LocalDateTime> createdAtOf, Function<R, UUID> id,
+                                           Function<R, D> mapper) {
+        if (request.getSize() < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int size = Math.min(request.getSize(), MAX_SIZE);
+        // At cursor precision, so a row compares equal to the cursor it produced
+        Function<R, LocalDateTime> createdAt = row -> createdAtOf.apply(row).truncatedTo(ChronoUnit.MICROS);
+
+        Comparator<R> order = Comparator.comparing(createdAt).thenComparing(id, CursorPages::compareIds);
+        Stream<R> matching = rows.stream();
+        if (request.getCursor() != null) {
+            Key after = decode(request.getCursor());
+            matching = matching.filter(row -> {
+                int byCreatedAt = createdAt.apply(row).compareTo(after.createdAt());
+                return byCreatedAt > 0 || byCreatedAt == 0 && compareIds(id.apply(row), after.id()) > 0;
+            });
+        }
+        List<R> page = matching.sorted(order).limit(size + 1).toList();
+        boolean hasMore = page.size() > size;
+        List<R> items = hasMore ? page.subList(0, size) : page;
+
+        String nextCursor = null;
+        if (hasMore) {
+            R last = items.get(items.size() - 1);
+            nextCursor = encode(createdAt.apply(last), id.apply(last));
+        }
+        Long totalCount = request.isCount() ? (long) rows.size() : null;
+
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor, totalCount);
+    }
+
+    /**
+     * Pages over keys an in-memory index lists in (createdAt, id) order, with the same cursors as the queried
+     * pages. {@code loader} reads the rows for one page of ids in that order and may drop rows that no longer
+     * match, which leaves the page short rather than wrong. The next cursor follows the page's last key, so a
+     * page whose rows were all dropped still leads on to the next.
+     */
+    static <R, D> CursorPage<D> fromIds(CursorRequest request, IdLister ids, Function<List<UUID>, List<R>> loader,
+                                        Function<R, D> mapper, LongSupplier counter) {
+        if (request.getSize() < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int size = Math.min(request.getSize(), MAX_SIZE);
+        Key after = request.getCursor() == null ? null : decode(request.getCursor());
+
+        List<Candidate> candidates = after == null
+            ? ids.list(null, null, size + 1)
+            : ids.list(after.createdAt(), after.id(), size + 1);
+        boolean hasMore = candidates.size() > size;
+        List<Candidate> pageKeys = hasMore ? candidates.subList(0, size) : candidates;
+        List<UUID> pageIds = pageKeys.stream().map(Candidate::id).toList();
+        List<R> items = pageIds.isEmpty() ? List.of() : loader.apply(pageIds);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Candidate last = pageKeys.get(size - 1);
+            nextCursor = encode(last.createdAt(), last.id());
+        }
+        Long totalCount = request.isCount() ? counter.getAsLong() : null;
+
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor, totalCount);
+    }
+
+    private static <E, R, D> CursorPage<D> page(Specification<E> filter, CursorRequest request,
+                                                Sort.Direction direction, Finder<E, R> finder,
+                                                Function<Specification<E>, Long> counter,
+                                                Function<R, LocalDateTime> createdAt, Function<R, UUID> id,
+                                                Function<List<R>, List<D>> mapper) {
+        if (request.getSize() < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int size = Math.min(request.getSize(), MAX_SIZE);
+
+        Specification<E> spec = Specification.where(filter);
+        Specification<E> page = request.getCursor() == null ? spec : spec.and(after(request.getCursor(), direction));
+
+        List<R> rows = finder.find(page, KeysetSpecification.order(direction), size + 1);
+        boolean hasMore = rows.size() > size;
+        List<R> items = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            R last = items.get(items.size() - 1);
+            nextCursor = encode(createdAt.apply(last), id.apply(last));
+        }
+        Long totalCount = request.isCount() ? counter.apply(spec) : null;
+
+        return new CursorPage<>(mapper.apply(items), nextCursor, totalCount);
+    }
+
+    // Truncated to the column precision so a row still held in memory compares equal to its stored value
+    private static String encode(LocalDateTime createdAt, UUID id) {
+        String key = createdAt.truncatedTo(ChronoUnit.MICROS) + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <E> Specification<E> after(String cursor, Sort.Direction direction) {
+        Key key = decode(cursor);
+        return direction.isAscending()
+            ? KeysetSpecification.after(key.createdAt(), key.id())
+            : KeysetSpecification.before(key.createdAt(), key.id());
+    }
+
+    private static Key decode(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_", 2);
+            return new Key(LocalDateTime.parse(key[0]), UUID.fromString(key[1]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // Unsigned, which is how PostgreSQL and H2 order uuid columns; UUID.compareTo is signed
+    private static int compareIds(UUID a, UUID b) {
+        int byHigh = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private record Key(LocalDateTime createdAt, UUID id) {
+    }
+}
@@ -1,69 +1,99 @@
 package com.gardiyan.oms.service.impl;
 
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
+import com.gardiyan.oms.event.CustomerChangedEvent;
 import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
 import com.gardiyan.oms.repository.spec.CustomerSpecification;
+import com.gardiyan.oms.search.CustomerSearchIndex;
 import com.gardiyan.oms.service.CustomerService;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.EmailAlreadyExistsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
+    private final CustomerCache customerCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<CustomerSearchIndex> searchIndex;
+    private final ObjectProvider<SearchResultCache> searchResults;
 
     @Override
     public CustomerDTO createCustomer(CustomerCreateRequest request) {
-        if (customerRepository.existsByEmail(request.getEmail())) {
+        // Emails are stored normalized, so the unique index and the cache agree on what is a duplicate; older
+        // mixed-case rows are matched by comparing on lower(email)
+        String email = CustomerCache.normalizeEmail(request.getEmail());
+        if (customerRepository.existsByNormalizedEmail(email)) {
             throw new EmailAlreadyExistsException("Email already exists");
         }
         
         Customer customer = new Customer();
         customer.setFirstName(request.getFirstName());
         customer.setLastName(request.getLastName());
-        customer.setEmail(request.getEmail());
+        customer.setEmail(email);
         customer.setPhone(request.getPhone());
         
-        return mapToDTO(customerRepository.save(customer));
+        Customer savedCustomer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(savedCustomer.getId(), List.of(email)));
+        return mapToDTO(savedCustomer);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomerById(UUID id) {
-        return customerRepository.findById(id)
-            .map(this::mapToDTO)
+        return customerCache.get(id)
+            .map(this::toDTO)
             .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
     }
 
     @Override
-    public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerDTO> getAllCustomers(CursorRequest page) {
+        return fetchViews(null, page);
     }
 
     @Override
     public CustomerDTO updateCustomer(UUID id, CustomerUpdateRequest request) {
         Customer customer = customerRepository.findById(id)
             .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+        String previousEmail = CustomerCache.normalizeEmail(customer.getEmail());
+        String email = CustomerCache.normalizeEmail(request.getEmail());
             
         customer.setFirstName(request.getFirstName());
         customer.setLastName(request.getLastName());
-        customer.setEmail(request.getEmail());
+        customer.setEmail(email);
         customer.setPhone(request.getPhone());
         
-        return mapToDTO(customerRepository.save(customer));
+        // Flushed so the returned version is the one this update wrote
+        Customer savedCustomer = customerRepository.saveAndFlush(customer);
+        eventPublisher.publishEvent(new CustomerChangedEvent(id,
+            Stream.of(previousEmail, email).filter(Objects::nonNull).distinct().toList()));
+        return mapToDTO(savedCustomer);
     }
 
     @Override
@@ -72,35 +102,78 @@ public class CustomerServiceImpl implements CustomerService {
             throw new CustomerNotFoundException("Customer not found");
         }
         customerRepository.deleteById(id);
+        // Address lookups resolve through the id entry, which is dropped here
+        eventPublisher.publishEvent(new CustomerChangedEvent(id, List.of()));
     }
 
     @Override
-    public List<CustomerDTO> searchCustomers(String name, String email, String phone) {
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerDTO> searchCustomers(String name, String email, String phone, CursorRequest page) {
+        SearchResultCache cache = searchResults.getIfAvailable();
+        if (cache == null) {
+            return search(name, email, phone, page);
+        }
+        return cache.get(EnumSet.of(SearchResultCache.Table.CUSTOMERS), "searchCustomers",
+            Arrays.asList(name, CustomerCache.normalizeEmail(email), phone,
+                page.getCursor(), page.getSize(), page.isCount()),
+            () -> search(name, email, phone, page));
+    }
+
+    private CursorPage<CustomerDTO> search(String name, String email, String phone, CursorRequest page) {
+        // The index only sees committed changes, so a caller's read-write transaction searches the database
+        CustomerSearchIndex index = searchIndex.getIfAvailable();
+        boolean ownWritesPending = TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (index != null && index.isReady() && !ownWritesPending) {
+            Optional<Collection<CustomerView>> matches = index.search(name, email, phone);
+            if (matches.isPresent()) {
+                return CursorPages.fromMemory(matches.get(), page, CustomerView::createdAt, CustomerView::id,
+                    this::toDTO);
+            }
+        }
+
         Specification<Customer> spec = Specification.where(null);
         
-        if (name != null) {
-            spec = spec.and(CustomerSpecification.firstNameContains(name)
-                .or(CustomerSpecification.lastNameContains(name)));
+        // Same matching as the index: name word prefixes, phone digit suffixes and the normalized email
+        for (String word : CustomerSearchIndex.words(name)) {
+            spec = spec.and(CustomerSpecification.nameHasWordStartingWith(word));
         }
-        if (email != null) {
-            spec = spec.and(CustomerSpecification.hasEmail(email));
+        String normalizedEmail = CustomerCache.normalizeEmail(email);
+        if (normalizedEmail != null && !normalizedEmail.isEmpty()) {
+            spec = spec.and(CustomerSpecification.hasEmail(normalizedEmail));
         }
-        if (phone != null) {
-            spec = spec.and(CustomerSpecification.phoneContains(phone));
+        String digits = CustomerSearchIndex.digits(phone);
+        if (!digits.isEmpty()) {
+            spec = spec.and(CustomerSpecification.phoneEndsWith(digits));
         }
         
-        return customerRepository.findAll(spec).stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+        return fetchViews(spec, page);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomerByEmail(String email) {
-        return customerRepository.findByEmail(email)
-            .map(this::mapToDTO)
+        return customerCache.getByEmail(email)
+            .map(this::toDTO)
             .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
     }
 
+    private CursorPage<CustomerDTO> fetchViews(Specification<Customer> filter, CursorRequest page) {
+        return CursorPages.fetchViews(filter, page, customerRepository::findViews, customerRepository::count,
+            CustomerView::createdAt, CustomerView::id, this::toDTO);
+    }
+
+    private CustomerDTO toDTO(CustomerView view) {
+        CustomerDTO dto = new CustomerDTO();
+        dto.setId(view.id());
+        dto.setFirstName(view.firstName());
+        dto.setLastName(view.lastName());
+        dto.setEmail(view.email());
+        dto.setPhone(view.phone());
+        dto.setVersion(view.version());
+        return dto;
+    }
+
     private CustomerDTO mapToDTO(Customer customer) {
         CustomerDTO dto = new CustomerDTO();
         dto.setId(customer.getId());
@@ -108,6 +181,7 @@ public class CustomerServiceImpl implements CustomerService {
         dto.setLastName(customer.getLastName());
         dto.setEmail(customer.getEmail());
         dto.setPhone(customer.getPhone());
+        dto.setVersion(customer.getVersion());
         return dto;
     }
 } 
\ No newline at end of file
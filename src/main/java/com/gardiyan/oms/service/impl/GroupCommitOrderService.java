@@ -0,0 +1,246 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.exception.ServiceUnavailableException;
+import com.gardiyan.oms.service.OrderOutcome;
+import com.gardiyan.oms.service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Group commit for {@link OrderService#createOrder}: callers park on a queue and a single writer thread
+ * drains up to {@code max-batch} of them, waiting at most {@code max-wait-us} for the group to fill, then
+ * places the whole group with {@link OrderService#placeOrders} in one transaction. If that transaction fails,
+ * the group's orders are placed again one by one so a single bad order does not fail the others. Each caller
+ * gets its own order or exception, or a 503 once {@code timeout} passes. Calls made inside an existing
+ * transaction bypass the queue so they keep their caller's atomicity.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "oms.orders.group-commit.enabled", havingValue = "true")
+public class GroupCommitOrderService implements OrderService {
+    private final OrderServiceImpl delegate;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private Thread writer;
+    private volatile boolean running = true;
+    // Set once the writer stops taking orders; anything queued after that is failed by its caller
+    private volatile boolean stopped;
+
+    public GroupCommitOrderService(OrderServiceImpl delegate,
+                                   @Value("${oms.orders.group-commit.max-batch:64}") int maxBatch,
+                                   @Value("${oms.orders.group-commit.max-wait-us:500}") long maxWaitMicros,
+                                   @Value("${oms.orders.group-commit.queue-capacity:4096}") int queueCapacity,
+                                   @Value("${oms.orders.group-commit.timeout:PT30S}") Duration timeout) {
+        this.delegate = delegate;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.timeoutNanos = timeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer = new Thread(this::writeGroups, "order-group-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public OrderDTO createOrder(OrderCreateRequest request) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.createOrder(request);
+        }
+
+        PendingOrder pending = new PendingOrder(request);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while queueing order", ex);
+        }
+
+        if (stopped && queue.remove(pending)) {
+            throw new ServiceUnavailableException("Order writer has stopped");
+        }
+
+        try {
+            return pending.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Still queued means it was never written; once taken by the writer its group may yet commit
+            if (queue.remove(pending)) {
+                throw new ServiceUnavailableException("Order was not placed: the order writer did not take it in time");
+            }
+            throw new ServiceUnavailableException(
+                "Timed out waiting for the order to be placed; it may still be committed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for order", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Order placement failed", ex.getCause());
+        }
+    }
+
+    private void writeGroups() {
+        List<PendingOrder> group = new ArrayList<>(maxBatch);
+        try {
+            drainGroups(group);
+        } catch (Throwable ex) {
+            log.error("Order writer stopped unexpectedly", ex);
+            throw ex;
+        } finally {
+            // However the loop ended, nobody will write what is left: fail it rather than leave callers waiting
+            stopped = true;
+            ServiceUnavailableException stopping = new ServiceUnavailableException("Order writer has stopped");
+            group.forEach(pending -> pending.result.completeExceptionally(stopping));
+            List<PendingOrder> abandoned = new ArrayList<>();
+            queue.drainTo(abandoned);
+            abandoned.forEach(pending -> pending.result.completeExceptionally(stopping));
+        }
+    }
+
+    private void drainGroups(List<PendingOrder> group) {
+        while (running) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxBatch) {
+                    PendingOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                write(group);
+                group.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<PendingOrder> group) {
+        List<OrderOutcome> outcomes;
+        try {
+            outcomes = delegate.placeOrders(group.stream().map(pending -> pending.request).toList());
+        } catch (RuntimeException ex) {
+            // The shared transaction rolled back, so nothing in the group was placed
+            log.warn("Order group of {} failed, placing its orders one by one", group.size(), ex);
+            group.forEach(this::writeAlone);
+            return;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            complete(group.get(i), outcomes.get(i));
+        }
+    }
+
+    private void writeAlone(PendingOrder pending) {
+        try {
+            complete(pending, delegate.placeOrders(List.of(pending.request)).get(0));
+        } catch (RuntimeException ex) {
+            log.error("Order could not be placed", ex);
+            pending.result.completeExceptionally(ex);
+        }
+    }
+
+    private static void complete(PendingOrder pending, OrderOutcome outcome) {
+        if (outcome.isCreated()) {
+            pending.result.complete(outcome.getOrder());
+        } else {
+            pending.result.completeExceptionally(outcome.getFailure());
+        }
+    }
+
+    @Override
+    public List<OrderBatchResult> createOrders(List<OrderCreateRequest> requests) {
+        return delegate.createOrders(requests);
+    }
+
+    @Override
+    public List<OrderOutcome> placeOrders(List<OrderCreateRequest> requests) {
+        return delegate.placeOrders(requests);
+    }
+
+    @Override
+    public OrderDTO getOrderById(UUID id) {
+        return delegate.getOrderById(id);
+    }
+
+    @Override
+    public long getOrderVersion(UUID id) {
+        return delegate.getOrderVersion(id);
+    }
+
+    @Override
+    public CursorPage<OrderDTO> getAllOrders(CursorRequest page) {
+        return delegate.getAllOrders(page);
+    }
+
+    @Override
+    public CursorPage<OrderDTO> getOrdersByCustomerId(UUID customerId, CursorRequest page) {
+        return delegate.getOrdersByCustomerId(customerId, page);
+    }
+
+    @Override
+    public void deleteOrder(UUID id) {
+        delegate.deleteOrder(id);
+    }
+
+    @Override
+    public CursorPage<OrderDTO> searchOrders(OrderSearchRequest request, CursorRequest page) {
+        return delegate.searchOrders(request, page);
+    }
+
+    @Override
+    public long exportOrders(OrderSearchRequest request, Consumer<OrderDTO> sink) {
+        return delegate.exportOrders(request, sink);
+    }
+
+    private static final class PendingOrder {
+        private final OrderCreateRequest request;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+
+        private PendingOrder(OrderCreateRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.exception.IdempotencyKeyMismatchException;
+import com.gardiyan.oms.model.IdempotencyRecord;
+import com.gardiyan.oms.repository.IdempotencyRecordRepository;
+import com.gardiyan.oms.service.IdempotentOrderService;
+import com.gardiyan.oms.service.OrderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Makes order creation safe to retry. A key maps to the order it created and a hash of the request that
+ * created it; the mapping is written in the same transaction as the order and fronted by a bounded cache,
+ * so a replay only reads the stored order. Requests that arrive while the first one with their key is still
+ * running wait for its outcome. Reusing a key with a different request is rejected.
+ */
+@Slf4j
+@Service
+public class IdempotentOrderServiceImpl implements IdempotentOrderService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentOrderServiceImpl(OrderService orderService,
+                                      IdempotencyRecordRepository recordRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${oms.idempotency.cache-size:10000}") long cacheSize,
+                                      @Value("${oms.idempotency.retention:PT24H}") Duration retention) {
+        this.orderService = orderService;
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.completed = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(retention)
+            .build();
+    }
+
+    @Override
+    public OrderDTO createOrder(String idempotencyKey, OrderCreateRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        OrderDTO replay = replay(idempotencyKey, requestHash);
+        if (replay != null) {
+            return replay;
+        }
+
+        Execution execution = new Execution(requestHash, new CompletableFuture<>());
+        Execution running = inFlight.putIfAbsent(idempotencyKey, execution);
+        if (running != null) {
+            checkRequest(running.requestHash(), requestHash);
+            return await(running.result());
+        }
+
+        try {
+            // The previous holder of the key may have finished between the replay check and putIfAbsent
+            OrderDTO order = replay(idempotencyKey, requestHash);
+            if (order == null) {
+                order = execute(idempotencyKey, requestHash, request);
+            }
+            execution.result().complete(order);
+            return order;
+        } catch (RuntimeException ex) {
+            execution.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(idempotencyKey, execution);
+        }
+    }
+
+    private OrderDTO execute(String idempotencyKey, String requestHash, OrderCreateRequest request) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord(idempotencyKey, null, requestHash);
+            OrderDTO order = transactionTemplate.execute(status -> {
+                OrderDTO created = orderService.createOrder(request);
+                record.setOrderId(created.getId());
+                recordRepository.saveAndFlush(record);
+                return created;
+            });
+            completed.put(idempotencyKey, record);
+            return order;
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance stored the key first; its transaction rolled ours back, stock included
+            OrderDTO order = replay(idempotencyKey, requestHash);
+            if (order == null) {
+                throw ex;
+            }
+            return order;
+        }
+    }
+
+    private OrderDTO replay(String idempotencyKey, String requestHash) {
+        IdempotencyRecord record = completed.getIfPresent(idempotencyKey);
+        if (record == null) {
+            record = recordRepository.findById(idempotencyKey).orElse(null);
+            if (record == null) {
+                return null;
+            }
+            completed.put(idempotencyKey, record);
+        }
+        // Records stored before the hash was kept have none to compare against
+        if (record.getRequestHash() != null) {
+            checkRequest(record.getRequestHash(), requestHash);
+        }
+        return orderService.getOrderById(record.getOrderId());
+    }
+
+    private static void checkRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    // Hashes the fields that decide the order, in request order, so the same body always gives the same hash
+    private static String hash(OrderCreateRequest request) {
+        StringBuilder canonical = new StringBuilder().append(request.getCustomerId());
+        List<OrderItemRequest> items = request.getItems() != null ? request.getItems() : List.of();
+        for (OrderItemRequest item : items) {
+            canonical.append('|').append(item.getProductId()).append(':').append(item.getQuantity());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private OrderDTO await(CompletableFuture<OrderDTO> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oms.idempotency.purge-interval-ms:3600000}")
+    void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status ->
+            recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private record Execution(String requestHash, CompletableFuture<OrderDTO> result) {
+    }
+}
@@ -1,14 +1,23 @@
 package com.gardiyan.oms.service.impl;
 
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.cache.ProductCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
-import com.gardiyan.oms.dto.request.order.OrderItemRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
 import com.gardiyan.oms.dto.response.order.OrderItemDTO;
+import com.gardiyan.oms.event.OrderChangedEvent;
+import com.gardiyan.oms.event.ProductsSoldEvent;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.OrderNotFoundException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.inventory.StockManager;
 import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.model.Order;
 import com.gardiyan.oms.model.OrderItem;
@@ -16,16 +25,34 @@ import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.CustomerRepository;
 import com.gardiyan.oms.repository.OrderRepository;
 import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.OrderLineView;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.OrderSpecification;
+import com.gardiyan.oms.service.OrderOutcome;
 import com.gardiyan.oms.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -34,96 +61,221 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final StockManager stockManager;
+    private final ProductCache productCache;
+    private final CustomerCache customerCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<SearchResultCache> searchResults;
 
     @Override
     public OrderDTO createOrder(OrderCreateRequest request) {
-        Customer customer = customerRepository.findById(request.getCustomerId())
-            .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+        // A warm customer cache answers the existence check; the order only needs a reference for its foreign key
+        if (!customerCache.exists(request.getCustomerId())) {
+            throw new CustomerNotFoundException("Customer not found");
+        }
+        Customer customer = customerRepository.getReferenceById(request.getCustomerId());
 
-        Order order = new Order();
-        order.setCustomer(customer);
-        order.setTotalAmount(BigDecimal.ZERO);
+        // Names and prices come from the product cache; stock is only ever decided by the guarded update
+        Map<UUID, Integer> quantities = OrderSupport.mergeQuantities(request.getItems());
+        Map<UUID, ProductView> catalog = productCache.getCatalog(quantities.keySet());
+        OrderSupport.requireProducts(quantities, catalog);
 
-        List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<UUID> rejected = stockManager.reserve(quantities);
+        if (!rejected.isEmpty()) {
+            UUID productId = rejected.get(0);
+            ProductView current = productRepository.findViewById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found: " + productId));
+            throw OrderSupport.insufficientStock(current.name(),
+                stockManager.available(productId, current.stockQuantity()), quantities.get(productId));
+        }
 
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findByIdWithLock(itemRequest.getProductId());
-            if (product == null) {
-                throw new ProductNotFoundException("Product not found: " + itemRequest.getProductId());
-            }
+        Order order = OrderSupport.newOrder(customer, quantities, productRepository::getReferenceById,
+            productId -> catalog.get(productId).price());
+        OrderDTO created = OrderSupport.toDTO(orderRepository.save(order));
+        eventPublisher.publishEvent(new ProductsSoldEvent(quantities));
+        eventPublisher.publishEvent(OrderChangedEvent.of(created.getId()));
+        return created;
+    }
 
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new InsufficientStockException(
-                    String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
-                        product.getName(), product.getStockQuantity(), itemRequest.getQuantity())
-                );
+    @Override
+    public List<OrderBatchResult> createOrders(List<OrderCreateRequest> requests) {
+        return placeOrders(requests).stream()
+            .map(outcome -> outcome.isCreated()
+                ? OrderBatchResult.created(outcome.getOrder().getId())
+                : OrderBatchResult.failed(outcome.getFailure().getMessage()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<OrderOutcome> placeOrders(List<OrderCreateRequest> requests) {
+        Set<UUID> customerIds = new HashSet<>();
+        Set<UUID> productIds = new HashSet<>();
+        for (OrderCreateRequest request : requests) {
+            customerIds.add(request.getCustomerId());
+            if (request.getItems() != null) {
+                request.getItems().stream()
+                    .filter(Objects::nonNull)
+                    .map(OrderItemRequest::getProductId)
+                    .forEach(productIds::add);
             }
+        }
+        customerIds.remove(null);
+        productIds.remove(null);
+
+        Map<UUID, Customer> customers = customerRepository.findAllById(customerIds).stream()
+            .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<UUID, Product> products = productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setPrice(product.getPrice());
-            orderItem.calculateTotalPrice();
+        // Every rejection happens before anything is written, so a bad order never taints the transaction.
+        // Stock is taken order by order; the accepted orders are inserted together at the end.
+        List<Order> accepted = new ArrayList<>();
+        List<RuntimeException> failures = new ArrayList<>();
+        Map<UUID, Integer> sold = new HashMap<>();
+        for (OrderCreateRequest request : requests) {
+            try {
+                Customer customer = customers.get(request.getCustomerId());
+                if (customer == null) {
+                    throw new CustomerNotFoundException("Customer not found");
+                }
 
-            orderItems.add(orderItem);
-            totalAmount = totalAmount.add(orderItem.getTotalPrice());
+                Map<UUID, Integer> quantities = OrderSupport.mergeQuantities(request.getItems());
+                OrderSupport.requireProducts(quantities, products);
 
-            product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-            productRepository.save(product);
+                List<UUID> rejected = stockManager.reserve(quantities);
+                if (!rejected.isEmpty()) {
+                    UUID productId = rejected.get(0);
+                    throw OrderSupport.insufficientStock(products.get(productId), quantities.get(productId));
+                }
+
+                accepted.add(OrderSupport.newOrder(customer, quantities, products));
+                failures.add(null);
+                quantities.forEach((productId, quantity) -> sold.merge(productId, quantity, Integer::sum));
+            } catch (CustomerNotFoundException | ProductNotFoundException | InsufficientStockException
+                     | IllegalArgumentException ex) {
+                accepted.add(null);
+                failures.add(ex);
+            }
         }
 
-        order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
-        
-        return mapToDTO(savedOrder);
+        List<Order> created = accepted.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        orderRepository.saveAll(created);
+        orderRepository.flush();
+        if (!sold.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsSoldEvent(sold));
+        }
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new OrderChangedEvent(created.stream().map(Order::getId).toList()));
+        }
+
+        List<OrderOutcome> outcomes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            outcomes.add(accepted.get(i) != null
+                ? OrderOutcome.created(OrderSupport.toDTO(accepted.get(i)))
+                : OrderOutcome.rejected(failures.get(i)));
+        }
+        return outcomes;
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderDTO getOrderById(UUID id) {
         return orderRepository.findById(id)
-            .map(this::mapToDTO)
+            .map(OrderSupport::toDTO)
             .orElseThrow(() -> new OrderNotFoundException("Order not found"));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+    public long getOrderVersion(UUID id) {
+        return orderRepository.findVersionById(id)
+            .orElseThrow(() -> new OrderNotFoundException("Order not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getAllOrders(CursorRequest page) {
+        return CursorPages.fetchAll(orderRepository, null, page, Order::getCreatedAt, Order::getId, this::toDTOs);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByCustomerId(UUID customerId) {
-        if (!customerRepository.existsById(customerId)) {
+    public CursorPage<OrderDTO> getOrdersByCustomerId(UUID customerId, CursorRequest page) {
+        if (!customerCache.exists(customerId)) {
             throw new CustomerNotFoundException("Customer not found");
         }
-        return orderRepository.findByCustomerId(customerId).stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+        return CursorPages.fetchAll(orderRepository, OrderSpecification.hasCustomerId(customerId), page,
+            Order::getCreatedAt, Order::getId, this::toDTOs);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDTO> searchOrders(OrderSearchRequest searchRequest) {
-        if (searchRequest.getCustomerName() != null && !searchRequest.getCustomerName().isEmpty()) {
-            return orderRepository.findByCustomerName(searchRequest.getCustomerName()).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<OrderDTO> searchOrders(OrderSearchRequest searchRequest, CursorRequest page) {
+        SearchResultCache cache = searchResults.getIfAvailable();
+        if (cache == null) {
+            return search(searchRequest, page);
         }
+        // The customer name filter reads customers too
+        return cache.get(EnumSet.of(SearchResultCache.Table.ORDERS, SearchResultCache.Table.CUSTOMERS),
+            "searchOrders",
+            Arrays.asList(searchRequest.getCustomerId(), searchRequest.getCustomerName(), searchRequest.getStartDate(),
+                searchRequest.getEndDate(), SearchResultCache.normalize(searchRequest.getMinAmount()),
+                SearchResultCache.normalize(searchRequest.getMaxAmount()), searchRequest.getDirection(),
+                page.getCursor(), page.getSize(), page.isCount()),
+            () -> search(searchRequest, page));
+    }
 
-        return orderRepository.searchOrders(
-            searchRequest.getCustomerId(),
-            searchRequest.getStartDate(),
-            searchRequest.getEndDate()
-        ).stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+    private CursorPage<OrderDTO> search(OrderSearchRequest searchRequest, CursorRequest page) {
+        return CursorPages.fetchAll(orderRepository, searchSpec(searchRequest), page, searchRequest.getDirection(),
+            Order::getCreatedAt, Order::getId, this::toDTOs);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderSearchRequest searchRequest, Consumer<OrderDTO> sink) {
+        long exported = 0;
+        try (Stream<OrderLineView> lines = orderRepository.streamLines(searchSpec(searchRequest),
+                searchRequest.getDirection())) {
+            // Lines arrive grouped by order, so only the order being assembled is ever held
+            OrderDTO current = null;
+            Iterator<OrderLineView> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                OrderLineView line = iterator.next();
+                if (current == null || !current.getId().equals(line.orderId())) {
+                    if (current != null) {
+                        sink.accept(current);
+                        exported++;
+                    }
+                    current = toDTO(line);
+                }
+                if (line.itemId() != null) {
+                    current.getItems().add(toItemDTO(line));
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    private Specification<Order> searchSpec(OrderSearchRequest searchRequest) {
+        Specification<Order> spec = Specification.where(null);
+
+        if (searchRequest.getCustomerName() != null && !searchRequest.getCustomerName().isEmpty()) {
+            spec = spec.and(OrderSpecification.customerNameContains(searchRequest.getCustomerName()));
+        }
+        if (searchRequest.getCustomerId() != null) {
+            spec = spec.and(OrderSpecification.hasCustomerId(searchRequest.getCustomerId()));
+        }
+        if (searchRequest.getStartDate() != null || searchRequest.getEndDate() != null) {
+            spec = spec.and(OrderSpecification.createdBetween(searchRequest.getStartDate(), searchRequest.getEndDate()));
+        }
+        if (searchRequest.getMinAmount() != null || searchRequest.getMaxAmount() != null) {
+            spec = spec.and(OrderSpecification.totalAmountBetween(searchRequest.getMinAmount(), searchRequest.getMaxAmount()));
+        }
+        return spec;
     }
 
     @Override
@@ -131,38 +283,50 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
             .orElseThrow(() -> new OrderNotFoundException("Order not found"));
 
-        // Restore product stock quantities
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
 
-        orderRepository.deleteById(id);
+        orderRepository.delete(order);
+        eventPublisher.publishEvent(OrderChangedEvent.of(id));
+
+        // Restore product stock quantities
+        stockManager.release(quantities);
     }
 
-    private OrderDTO mapToDTO(Order order) {
+    private OrderDTO toDTO(OrderLineView line) {
         OrderDTO dto = new OrderDTO();
-        dto.setId(order.getId());
-        dto.setCustomerId(order.getCustomer().getId());
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setCreatedAt(order.getCreatedAt());
-        
-        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream()
-            .map(this::mapToOrderItemDTO)
-            .collect(Collectors.toList());
-        dto.setItems(itemDTOs);
-        
+        dto.setId(line.orderId());
+        dto.setCustomerId(line.customerId());
+        dto.setTotalAmount(line.totalAmount());
+        dto.setCreatedAt(line.createdAt());
+        dto.setVersion(line.version());
+        dto.setItems(new ArrayList<>());
         return dto;
     }
 
-    private OrderItemDTO mapToOrderItemDTO(OrderItem item) {
+    private OrderItemDTO toItemDTO(OrderLineView line) {
         OrderItemDTO dto = new OrderItemDTO();
-        dto.setId(item.getId());
-        dto.setProductId(item.getProduct().getId());
-        dto.setQuantity(item.getQuantity());
-        dto.setPrice(item.getPrice());
-        dto.setTotalPrice(item.getTotalPrice());
+        dto.setId(line.itemId());
+        dto.setProductId(line.productId());
+        dto.setQuantity(line.quantity());
+        dto.setPrice(line.price());
+        dto.setTotalPrice(line.itemTotalPrice());
         return dto;
     }
-} 
\ No newline at end of file
+
+    // Loads the items of a whole page in one query. Customer and product ids are read from the foreign keys
+    // held by the lazy proxies, so neither association is initialized.
+    private List<OrderDTO> toDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Order> loaded = orderRepository.findWithItemsByIdIn(orders.stream().map(Order::getId).toList())
+            .stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a));
+        return orders.stream()
+            .map(order -> OrderSupport.toDTO(loaded.getOrDefault(order.getId(), order)))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,132 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.dto.response.order.OrderItemDTO;
+import com.gardiyan.oms.exception.InsufficientStockException;
+import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Order;
+import com.gardiyan.oms.model.OrderItem;
+import com.gardiyan.oms.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Validation and mapping rules shared by every path that turns a basket into an Order
+final class OrderSupport {
+
+    private OrderSupport() {
+    }
+
+    static Map<UUID, Integer> mergeQuantities(List<OrderItemRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest item : items) {
+            if (item == null || item.getProductId() == null) {
+                throw new IllegalArgumentException("Product id is required");
+            }
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), OrderSupport::addQuantities);
+        }
+        return quantities;
+    }
+
+    // Rejected like any other invalid order rather than failing the whole batch it arrived in
+    private static int addQuantities(int a, int b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Quantity is too large");
+        }
+    }
+
+    static void requireProducts(Map<UUID, Integer> quantities, Map<UUID, ?> products) {
+        for (UUID productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ProductNotFoundException("Product not found: " + productId);
+            }
+        }
+    }
+
+    static InsufficientStockException insufficientStock(Product product, int requested) {
+        return insufficientStock(product.getName(), product.getStockQuantity(), requested);
+    }
+
+    static InsufficientStockException insufficientStock(String productName, int available, int requested) {
+        return new InsufficientStockException(
+            String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
+                productName, available, requested)
+        );
+    }
+
+    static Order newOrder(Customer customer, Map<UUID, Integer> quantities, Map<UUID, Product> products) {
+        return newOrder(customer, quantities, products::get, productId -> products.get(productId).getPrice());
+    }
+
+    /**
+     * Builds an order whose lines reference {@code product} and are priced by {@code price}, so the price can
+     * come from somewhere other than a loaded entity.
+     */
+    static Order newOrder(Customer customer, Map<UUID, Integer> quantities, Function<UUID, Product> product,
+                          Function<UUID, BigDecimal> price) {
+        Order order = new Order();
+        order.setCustomer(customer);
+
+        List<OrderItem> orderItems = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product.apply(line.getKey()));
+            orderItem.setQuantity(line.getValue());
+            orderItem.setPrice(price.apply(line.getKey()));
+            orderItem.calculateTotalPrice();
+
+            orderItems.add(orderItem);
+            totalAmount = totalAmount.add(orderItem.getTotalPrice());
+        }
+
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+
+    static OrderDTO toDTO(Order order) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setCustomerId(order.getCustomer().getId());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setCreatedAt(order.getCreatedAt());
+        dto.setVersion(order.getVersion());
+        
+        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream()
+            .map(OrderSupport::toItemDTO)
+            .collect(Collectors.toList());
+        dto.setItems(itemDTOs);
+        
+        return dto;
+    }
+
+    private static OrderItemDTO toItemDTO(OrderItem item) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setId(item.getId());
+        dto.setProductId(item.getProduct().getId());
+        dto.setQuantity(item.getQuantity());
+        dto.setPrice(item.getPrice());
+        dto.setTotalPrice(item.getTotalPrice());
+        return dto;
+    }
+}
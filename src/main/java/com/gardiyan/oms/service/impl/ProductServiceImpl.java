@@ -1,29 +1,65 @@
 package com.gardiyan.oms.service.impl;
 
+import com.gardiyan.oms.cache.ProductCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.inventory.StockManager;
 import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
 import com.gardiyan.oms.repository.spec.ProductSpecification;
+import com.gardiyan.oms.search.ProductFacets;
+import com.gardiyan.oms.search.ProductFilterIndex;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import com.gardiyan.oms.search.ProductSearchIndex.Hit;
+import com.gardiyan.oms.search.ProductSuggester;
 import com.gardiyan.oms.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ProductServiceImpl implements ProductService {
+    private static final int MAX_STOCK_SHARDS = 64;
+    private static final int INDEX_COUNT_BATCH = 1000;
+
     private final ProductRepository productRepository;
+    private final StockManager stockManager;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductFacets productFacets;
+    private final ObjectProvider<ProductSearchIndex> searchIndex;
+    private final ObjectProvider<ProductSuggester> suggester;
+    private final ObjectProvider<ProductFilterIndex> filterIndex;
+    private final ObjectProvider<SearchResultCache> searchResults;
 
     @Override
     public ProductDTO createProduct(ProductCreateRequest request) {
@@ -32,22 +68,25 @@ public class ProductServiceImpl implements ProductService {
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         product.setStockQuantity(request.getStockQuantity());
-        
-        return mapToDTO(productRepository.save(product));
+
+        Product savedProduct = productRepository.save(product);
+        stockManager.track(savedProduct.getId(), savedProduct.getStockQuantity());
+        eventPublisher.publishEvent(ProductChangedEvent.catalog(savedProduct.getId()));
+        return mapToDTO(savedProduct);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(UUID id) {
-        return productRepository.findById(id)
-            .map(this::mapToDTO)
+        return productCache.get(id)
+            .map(this::toDTO)
             .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
     }
 
     @Override
-    public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getAllProducts(CursorRequest page) {
+        return fetchViews(null, page);
     }
 
     @Override
@@ -58,9 +97,20 @@ public class ProductServiceImpl implements ProductService {
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
-        product.setStockQuantity(request.getStockQuantity());
+        eventPublisher.publishEvent(ProductChangedEvent.catalog(id));
+
+        // Flushed so the returned version is the one this update wrote
+        if (product.getStockShards() > 0) {
+            Product savedProduct = productRepository.saveAndFlush(product);
+            // The total is read under the shard locks, so no order can take stock between the read and the adjust
+            stockManager.adjust(id, request.getStockQuantity() - productRepository.lockShardTotal(id));
+            return mapToDTO(savedProduct);
+        }
 
-        return mapToDTO(productRepository.save(product));
+        product.setStockQuantity(request.getStockQuantity());
+        Product savedProduct = productRepository.saveAndFlush(product);
+        stockManager.track(savedProduct.getId(), savedProduct.getStockQuantity());
+        return mapToDTO(savedProduct);
     }
 
     @Override
@@ -69,36 +119,81 @@ public class ProductServiceImpl implements ProductService {
             throw new ProductNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        stockManager.untrack(id);
+        eventPublisher.publishEvent(ProductChangedEvent.catalog(id));
     }
 
     @Override
     public ProductDTO updateStock(UUID id, int quantity) {
-        Product product = productRepository.findByIdWithLock(id);
-        if (product == null) {
-            throw new ProductNotFoundException("Product not found with id: " + id);
-        }
-
-        int newStockQuantity = product.getStockQuantity() + quantity;
-        if (newStockQuantity < 0) {
+        if (!stockManager.adjust(id, quantity)) {
+            Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
             throw new InsufficientStockException(
                 String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
-                    product.getName(), product.getStockQuantity(), Math.abs(quantity))
+                    product.getName(), stockManager.available(id, persistedStock(product)), Math.abs(quantity))
             );
         }
 
-        product.setStockQuantity(newStockQuantity);
-        return mapToDTO(productRepository.save(product));
+        return productRepository.findById(id)
+            .map(this::mapToDTO)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
     }
 
     @Override
-    public List<ProductDTO> getProductsInStock() {
-        return productRepository.findByStockQuantityGreaterThan(0).stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+    public ProductDTO enableStockSharding(UUID id, int shards) {
+        if (shards < 2 || shards > MAX_STOCK_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 2 and " + MAX_STOCK_SHARDS);
+        }
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+
+        if (product.getStockShards() > 0) {
+            stockManager.disableSharding(id);
+        }
+        stockManager.enableSharding(id, shards);
+        return getProductById(id);
+    }
+
+    @Override
+    public ProductDTO disableStockSharding(UUID id) {
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+
+        if (product.getStockShards() > 0) {
+            stockManager.disableSharding(id);
+        }
+        return getProductById(id);
     }
 
     @Override
-    public List<ProductDTO> searchProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, Integer minStock) {
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getProductsInStock(CursorRequest page) {
+        Specification<Product> inStock = ProductSpecification.stockGreaterThanOrEqual(1);
+        ProductFilterIndex index = readyFilterIndex();
+        if (index != null) {
+            return fetchFiltered(index, index.match(null, null, 1), inStock, page);
+        }
+        return fetchViews(inStock, page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchPage searchProducts(String query, String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                            Integer minStock, boolean facets, CursorRequest page) {
+        SearchResultCache cache = searchResults.getIfAvailable();
+        if (cache == null) {
+            return search(query, name, minPrice, maxPrice, minStock, facets, page);
+        }
+        // A blank query searches like no query at all
+        String text = query == null || query.isBlank() ? null : query;
+        return cache.get(EnumSet.of(SearchResultCache.Table.PRODUCTS), "searchProducts",
+            Arrays.asList(text, name, SearchResultCache.normalize(minPrice), SearchResultCache.normalize(maxPrice),
+                minStock, facets, page.getCursor(), page.getSize(), page.isCount()),
+            () -> search(query, name, minPrice, maxPrice, minStock, facets, page));
+    }
+
+    private ProductSearchPage search(String query, String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                     Integer minStock, boolean facets, CursorRequest page) {
         Specification<Product> spec = Specification.where(null);
 
         if (name != null) {
@@ -111,9 +206,174 @@ public class ProductServiceImpl implements ProductService {
             spec = spec.and(ProductSpecification.stockGreaterThanOrEqual(minStock));
         }
 
-        return productRepository.findAll(spec).stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+        if (query != null && !query.isBlank()) {
+            ProductSearchIndex index = searchIndex.getIfAvailable();
+            if (index != null && index.isReady()) {
+                CursorPage<ProductDTO> results = searchIndexed(index, query, minPrice, maxPrice, spec, page,
+                    name == null && minStock == null && minPrice == null && maxPrice == null);
+                return new ProductSearchPage(results,
+                    facets ? countFacetsIndexed(index, query, minPrice, maxPrice, spec) : null);
+            }
+            spec = spec.and(Specification.where(ProductSpecification.nameContains(query))
+                .or(ProductSpecification.descriptionContains(query)));
+        } else if (name == null) {
+            // Price and stock alone are bitmap operations in the filter index, facets included
+            ProductFilterIndex index = readyFilterIndex();
+            if (index != null) {
+                ProductFilterIndex.Matches matches = index.match(minPrice, maxPrice, minStock);
+                return new ProductSearchPage(fetchFiltered(index, matches, spec, page),
+                    facets ? index.facets(matches) : null);
+            }
+        }
+
+        // Every band is counted in the one aggregate query, rather than a search per band
+        return new ProductSearchPage(fetchViews(spec, page),
+            facets ? productFacets.toDTO(productRepository.countEach(spec, productFacets.bands())) : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        if (limit < 1 || limit > ProductSuggester.MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + ProductSuggester.MAX_RESULTS);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+
+        ProductSuggester ranked = suggester.getIfAvailable();
+        if (ranked != null && ranked.isReady()) {
+            return ranked.suggest(prefix, limit).stream()
+                .map(suggestion -> new ProductSuggestionDTO(suggestion.id(), suggestion.name()))
+                .toList();
+        }
+        // Unranked while the suggester loads: alphabetical matches straight from the table
+        return productRepository.findViews(ProductSpecification.nameStartsWith(prefix.stripLeading()),
+                Sort.by("name"), limit).stream()
+            .map(view -> new ProductSuggestionDTO(view.id(), view.name()))
+            .toList();
+    }
+
+    // Candidates come from the index in rank order with the price range applied; the other filters are checked in
+    // the database one batch of candidates at a time. A selective filter costs more batches but never a wrong row;
+    // each batch is twice the last, up to INDEX_COUNT_BATCH, so it costs few round trips as well.
+    private CursorPage<ProductDTO> searchIndexed(ProductSearchIndex index, String query, BigDecimal minPrice,
+                                                 BigDecimal maxPrice, Specification<Product> filter,
+                                                 CursorRequest page, boolean exactInIndex) {
+        if (page.getSize() < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int size = Math.min(page.getSize(), CursorPages.MAX_SIZE);
+        Hit position = page.getCursor() == null ? null : Hit.fromCursor(page.getCursor());
+
+        List<ProductDTO> items = new ArrayList<>(size);
+        Hit last = null;
+        boolean hasMore = false;
+        int batchSize = size + 1;
+        while (!hasMore) {
+            List<Hit> hits = index.search(query, minPrice, maxPrice, position, batchSize);
+            Map<UUID, ProductView> views = matching(filter, hits);
+            for (Hit hit : hits) {
+                ProductView view = views.get(hit.id());
+                if (view == null) {
+                    continue;
+                }
+                if (items.size() == size) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(toDTO(view));
+                last = hit;
+            }
+            if (hits.size() < batchSize) {
+                break;
+            }
+            position = hits.get(hits.size() - 1);
+            batchSize = Math.max(batchSize, Math.min(batchSize * 2, INDEX_COUNT_BATCH));
+        }
+
+        Long totalCount = page.isCount()
+            ? countIndexed(index, query, minPrice, maxPrice, filter, exactInIndex)
+            : null;
+        return new CursorPage<>(items, hasMore ? last.cursor() : null, totalCount);
+    }
+
+    private long countIndexed(ProductSearchIndex index, String query, BigDecimal minPrice, BigDecimal maxPrice,
+                              Specification<Product> filter, boolean exactInIndex) {
+        if (exactInIndex) {
+            return index.count(query, minPrice, maxPrice);
+        }
+        long count = 0;
+        Hit position = null;
+        List<Hit> hits;
+        do {
+            hits = index.search(query, minPrice, maxPrice, position, INDEX_COUNT_BATCH);
+            if (!hits.isEmpty()) {
+                count += productRepository.count(filter.and(idIn(hits)));
+                position = hits.get(hits.size() - 1);
+            }
+        } while (hits.size() == INDEX_COUNT_BATCH);
+        return count;
+    }
+
+    // Bands are counted over the index matches a batch at a time, together with the filters the index cannot apply
+    private ProductFacetsDTO countFacetsIndexed(ProductSearchIndex index, String query, BigDecimal minPrice,
+                                                BigDecimal maxPrice, Specification<Product> filter) {
+        long[] counts = new long[productFacets.bands().size()];
+        Hit position = null;
+        List<Hit> hits;
+        do {
+            hits = index.search(query, minPrice, maxPrice, position, INDEX_COUNT_BATCH);
+            if (!hits.isEmpty()) {
+                long[] batch = productRepository.countEach(filter.and(idIn(hits)), productFacets.bands());
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += batch[i];
+                }
+                position = hits.get(hits.size() - 1);
+            }
+        } while (hits.size() == INDEX_COUNT_BATCH);
+        return productFacets.toDTO(counts);
+    }
+
+    // The filter index only sees committed changes, so a caller's read-write transaction queries the database
+    private ProductFilterIndex readyFilterIndex() {
+        ProductFilterIndex index = filterIndex.getIfAvailable();
+        boolean ownWritesPending = TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return index != null && index.isReady() && !ownWritesPending ? index : null;
+    }
+
+    // Candidates come from the index in key order; the page's rows are read with the full filter, so a product that
+    // changed since the index last saw it is left out rather than shown wrongly
+    private CursorPage<ProductDTO> fetchFiltered(ProductFilterIndex index, ProductFilterIndex.Matches matches,
+                                                 Specification<Product> filter, CursorRequest page) {
+        CursorPages.IdLister keys = (createdAt, id, limit) -> index.list(matches, createdAt, id, limit).stream()
+            .map(entry -> new CursorPages.Candidate(entry.createdAt(), entry.id()))
+            .toList();
+        return CursorPages.fromIds(page, keys,
+            ids -> productRepository.findViews(filter.and(idsIn(ids)), KeysetSpecification.ORDER, ids.size()),
+            this::toDTO, matches::count);
+    }
+
+    private Map<UUID, ProductView> matching(Specification<Product> filter, List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findViews(filter.and(idIn(hits)), KeysetSpecification.ORDER, hits.size()).stream()
+            .collect(Collectors.toMap(ProductView::id, Function.identity()));
+    }
+
+    private static Specification<Product> idIn(List<Hit> hits) {
+        return idsIn(hits.stream().map(Hit::id).toList());
+    }
+
+    private static Specification<Product> idsIn(List<UUID> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    private CursorPage<ProductDTO> fetchViews(Specification<Product> filter, CursorRequest page) {
+        return CursorPages.fetchViews(filter, page, productRepository::findViews, productRepository::count,
+            ProductView::createdAt, ProductView::id, this::toDTO);
     }
 
     private ProductDTO mapToDTO(Product product) {
@@ -122,8 +382,30 @@ public class ProductServiceImpl implements ProductService {
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
-        dto.setStockQuantity(product.getStockQuantity());
+        dto.setStockQuantity(stockManager.available(product.getId(), persistedStock(product)));
+        dto.setStockShards(product.getStockShards());
         dto.setCreatedAt(product.getCreatedAt());
+        dto.setVersion(product.getVersion());
         return dto;
     }
+
+    // Read path: the view already carries the shard total, so no per-product sumShards query is needed
+    private ProductDTO toDTO(ProductView view) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(view.id());
+        dto.setName(view.name());
+        dto.setDescription(view.description());
+        dto.setPrice(view.price());
+        dto.setStockQuantity(stockManager.available(view.id(), view.stockQuantity()));
+        dto.setStockShards(view.stockShards());
+        dto.setCreatedAt(view.createdAt());
+        dto.setVersion(view.version());
+        return dto;
+    }
+
+    private int persistedStock(Product product) {
+        return product.getStockShards() > 0
+            ? productRepository.sumShards(product.getId())
+            : product.getStockQuantity();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.dto.response.order.ReservationDTO;
+import com.gardiyan.oms.event.OrderChangedEvent;
+import com.gardiyan.oms.event.ProductsSoldEvent;
+import com.gardiyan.oms.exception.CustomerNotFoundException;
+import com.gardiyan.oms.exception.ReservationNotFoundException;
+import com.gardiyan.oms.inventory.StockManager;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Order;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.model.StockReservation;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.StockReservationRepository;
+import com.gardiyan.oms.repository.projection.ReservationExpiry;
+import com.gardiyan.oms.service.ReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock for a basket until it is confirmed, released or its TTL runs out. Reservations are
+ * persisted so they survive a restart; expiry is driven by an in-memory {@link DelayQueue} that is
+ * refilled from the table at startup instead of polling the table.
+ */
+@Slf4j
+@Service
+@Transactional
+public class ReservationServiceImpl implements ReservationService {
+    private final StockReservationRepository reservationRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final StockManager stockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private Thread sweeper;
+
+    public ReservationServiceImpl(StockReservationRepository reservationRepository,
+                                  CustomerRepository customerRepository,
+                                  ProductRepository productRepository,
+                                  OrderRepository orderRepository,
+                                  StockManager stockManager,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${oms.reservation.ttl:PT15M}") Duration ttl) {
+        this.reservationRepository = reservationRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.stockManager = stockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+    }
+
+    @PostConstruct
+    void startSweeper() {
+        for (ReservationExpiry expiry : reservationRepository.findAllExpiries()) {
+            expiries.add(new Expiry(expiry.getId(), expiry.getExpiresAt()));
+        }
+
+        sweeper = new Thread(this::sweep, "reservation-sweeper");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    @PreDestroy
+    void stopSweeper() {
+        sweeper.interrupt();
+    }
+
+    @Override
+    public ReservationDTO reserve(OrderCreateRequest request) {
+        Customer customer = customerRepository.findById(request.getCustomerId())
+            .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+
+        Map<UUID, Integer> quantities = OrderSupport.mergeQuantities(request.getItems());
+        Map<UUID, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        OrderSupport.requireProducts(quantities, products);
+
+        List<UUID> rejected = stockManager.reserve(quantities);
+        if (!rejected.isEmpty()) {
+            UUID productId = rejected.get(0);
+            throw OrderSupport.insufficientStock(products.get(productId), quantities.get(productId));
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setCustomer(customer);
+        reservation.setItems(quantities);
+        reservation.setExpiresAt(LocalDateTime.now().plus(ttl));
+        StockReservation savedReservation = reservationRepository.save(reservation);
+
+        expiries.add(new Expiry(savedReservation.getId(), savedReservation.getExpiresAt()));
+        return mapToDTO(savedReservation);
+    }
+
+    @Override
+    public OrderDTO confirm(UUID reservationId) {
+        StockReservation reservation = reservationRepository.findByIdForUpdate(reservationId)
+            .filter(candidate -> candidate.getExpiresAt().isAfter(LocalDateTime.now()))
+            .orElseThrow(() -> new ReservationNotFoundException("Reservation not found or expired"));
+
+        Map<UUID, Integer> quantities = new LinkedHashMap<>(reservation.getItems());
+        Map<UUID, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        OrderSupport.requireProducts(quantities, products);
+
+        Order order = OrderSupport.newOrder(reservation.getCustomer(), quantities, products);
+        reservationRepository.delete(reservation);
+        OrderDTO confirmed = OrderSupport.toDTO(orderRepository.save(order));
+        eventPublisher.publishEvent(new ProductsSoldEvent(quantities));
+        eventPublisher.publishEvent(OrderChangedEvent.of(confirmed.getId()));
+        return confirmed;
+    }
+
+    @Override
+    public void release(UUID reservationId) {
+        StockReservation reservation = reservationRepository.findByIdForUpdate(reservationId)
+            .orElseThrow(() -> new ReservationNotFoundException("Reservation not found or expired"));
+        releaseReservation(reservation);
+    }
+
+    private void sweep() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                UUID reservationId = expiries.take().reservationId;
+                transactionTemplate.executeWithoutResult(status -> expire(reservationId));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Failed to expire reservation", ex);
+            }
+        }
+    }
+
+    private void expire(UUID reservationId) {
+        // Already confirmed or released reservations are simply gone
+        reservationRepository.findByIdForUpdate(reservationId).ifPresent(reservation -> {
+            if (reservation.getExpiresAt().isAfter(LocalDateTime.now())) {
+                expiries.add(new Expiry(reservation.getId(), reservation.getExpiresAt()));
+                return;
+            }
+            releaseReservation(reservation);
+        });
+    }
+
+    private void releaseReservation(StockReservation reservation) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>(reservation.getItems());
+        reservationRepository.delete(reservation);
+        stockManager.release(quantities);
+    }
+
+    private ReservationDTO mapToDTO(StockReservation reservation) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setId(reservation.getId());
+        dto.setCustomerId(reservation.getCustomer().getId());
+        dto.setItems(new LinkedHashMap<>(reservation.getItems()));
+        dto.setExpiresAt(reservation.getExpiresAt());
+        return dto;
+    }
+
+    private static final class Expiry implements Delayed {
+        private final UUID reservationId;
+        private final long deadlineNanos;
+
+        private Expiry(UUID reservationId, LocalDateTime expiresAt) {
+            this.reservationId = reservationId;
+            this.deadlineNanos = System.nanoTime() + Duration.between(LocalDateTime.now(), expiresAt).toNanos();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((Expiry) other).deadlineNanos);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.gardiyan.oms.service.impl;
+
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads: the first caller for a method and argument list runs it, and callers that
+ * arrive while it is running wait for and share its result or exception. Nothing is kept once the call returns,
+ * but a caller may still join a call that started before it arrived. Each table the calls read has a write
+ * generation, bumped once a change to it commits and part of the key, so a caller that arrives after a write
+ * committed never joins a call that could have read the rows before it.
+ *
+ * <p>At most {@code max-in-flight} distinct calls are tracked; beyond that, and inside an existing transaction
+ * (whose reads must see its own writes), calls run on their own. Outcomes are counted in
+ * {@code oms.single-flight.calls}, tagged {@code result=executed|collapsed|bypassed}.
+ */
+@Component
+public class SingleFlight {
+    private final int maxInFlight;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(Table.values().length);
+    private final Counter executed;
+    private final Counter collapsed;
+    private final Counter bypassed;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${oms.single-flight.max-in-flight:10000}") int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.executed = meterRegistry.counter("oms.single-flight.calls", "result", "executed");
+        this.collapsed = meterRegistry.counter("oms.single-flight.calls", "result", "collapsed");
+        this.bypassed = meterRegistry.counter("oms.single-flight.calls", "result", "bypassed");
+        meterRegistry.gaugeMapSize("oms.single-flight.in-flight", List.of(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Supplier<T> call, Table table, String method, Object... arguments) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || inFlight.size() >= maxInFlight) {
+            bypassed.increment();
+            return call.get();
+        }
+
+        Key key = new Key(method, Arrays.asList(arguments), generations.get(table.ordinal()));
+        CompletableFuture<Object> execution = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            collapsed.increment();
+            return (T) await(running);
+        }
+
+        executed.increment();
+        try {
+            T result = call.get();
+            execution.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            execution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generations.incrementAndGet(Table.PRODUCTS.ordinal());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        generations.incrementAndGet(Table.CUSTOMERS.ordinal());
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Arguments are request values (ids, strings, numbers, CursorRequest), all of which define equals
+    private record Key(String method, List<?> arguments, long generation) {
+    }
+
+    public enum Table {
+        PRODUCTS, CUSTOMERS
+    }
+}
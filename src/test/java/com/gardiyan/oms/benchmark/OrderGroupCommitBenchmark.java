@@ -0,0 +1,145 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.impl.OrderServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Compares one transaction per createOrder against the group-commit writer under concurrent callers.
+ * Run with {@code mvn test -Doms.benchmark=true -Dtest=OrderGroupCommitBenchmark}; point the test profile
+ * at PostgreSQL to see the commit cost, H2 in memory does not fsync.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest(properties = "oms.orders.group-commit.enabled=true")
+@ActiveProfiles("test")
+class OrderGroupCommitBenchmark {
+
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int WARMUP_ORDERS_PER_THREAD = 20;
+
+    @Autowired
+    private OrderServiceImpl directOrderService;
+
+    @Autowired
+    private OrderService groupCommitOrderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private OrderCreateRequest request;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setFirstName("Bench");
+        customer.setLastName("Mark");
+        customer.setEmail("bench@example.com");
+        customer.setPhone("+90 555 000 0000");
+        customer = customerRepository.save(customer);
+
+        Product product = new Product();
+        product.setName("Bench Product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(Integer.MAX_VALUE / 2);
+        product = productRepository.save(product);
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+
+        request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+    }
+
+    @Test
+    void compareCommitModes() throws Exception {
+        run("direct (warmup)", WARMUP_ORDERS_PER_THREAD, directOrderService::createOrder);
+        run("group-commit (warmup)", WARMUP_ORDERS_PER_THREAD, groupCommitOrderService::createOrder);
+        run("direct", ORDERS_PER_THREAD, directOrderService::createOrder);
+        run("group-commit", ORDERS_PER_THREAD, groupCommitOrderService::createOrder);
+    }
+
+    private void run(String label, int ordersPerThread, Consumer<OrderCreateRequest> createOrder) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long[] latencies = new long[THREADS * ordersPerThread];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long elapsed;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t * ordersPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        long begin = System.nanoTime();
+                        createOrder.accept(request);
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - startedAt;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Arrays.sort(latencies);
+        double seconds = elapsed / 1_000_000_000.0;
+        long commits = statistics.getSuccessfulTransactionCount();
+        System.out.printf("%-22s %7.0f orders/s %7.0f commits/s  p50 %6.2f ms  p99 %6.2f ms%n",
+            label,
+            latencies.length / seconds,
+            commits / seconds,
+            latencies[latencies.length / 2] / 1_000_000.0,
+            latencies[(int) (latencies.length * 0.99)] / 1_000_000.0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.model.id.UuidV7;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.repository.spec.ProductSpecification;
+import com.gardiyan.oms.search.ProductFacets;
+import com.gardiyan.oms.search.ProductFilterIndex;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Latency of a first page of products filtered by price range and minimum stock, with its total and facet counts,
+ * through SQL and through the bitmap filter index. Run with
+ * {@code mvn test -Doms.benchmark=true -Dtest=ProductFilterBenchmark} and optionally
+ * {@code -Doms.benchmark.products=10000000}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFilterBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_CALLS = 20;
+    private static final int MEASURED_CALLS = 100;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+
+    @Autowired
+    private ProductFacets productFacets;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int products;
+
+    @BeforeEach
+    void setUp() {
+        products = Integer.getInteger("oms.benchmark.products", 1_000_000);
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        String insert = "INSERT INTO products (id, name, description, price, stock_quantity, stock_shards, " +
+            "created_at, version) VALUES (?, ?, NULL, ?, ?, 0, ?, 0)";
+        long startedAt = System.nanoTime();
+        for (int done = 0; done < products; done += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int i = done; i < Math.min(done + BATCH_SIZE, products); i++) {
+                batch.add(new Object[]{UuidV7.next(), "Widget " + i, 10 + i % 990, i % 50, now});
+            }
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+        System.out.printf("loaded %,d products in %.1f s%n", products, (System.nanoTime() - startedAt) / 1e9);
+
+        startedAt = System.nanoTime();
+        productFilterIndex.load();
+        System.out.printf("indexed %,d products in %.1f s%n", products, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    @Test
+    void compareSqlAndBitmapFilters() {
+        measure("SQL", i -> {
+            Specification<Product> filter = Specification
+                .where(ProductSpecification.priceBetween(minPrice(i), minPrice(i).add(BigDecimal.valueOf(50))))
+                .and(ProductSpecification.stockGreaterThanOrEqual(minStock(i)));
+            productRepository.findViews(filter, KeysetSpecification.ORDER, PAGE_SIZE + 1);
+            productRepository.count(filter);
+            productRepository.countEach(filter, productFacets.bands());
+        });
+        measure("bitmap", i -> {
+            CursorRequest page = CursorRequest.first(PAGE_SIZE);
+            page.setCount(true);
+            productService.searchProducts(null, null, minPrice(i), minPrice(i).add(BigDecimal.valueOf(50)),
+                minStock(i), true, page);
+        });
+    }
+
+    private void measure(String label, IntConsumer listing) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            listing.accept(i);
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            listing.accept(WARMUP_CALLS + i);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+
+        System.out.printf("%-6s %,d products, %,d filtered pages with counts and facets: %,.2f ms/page%n",
+            label, products, MEASURED_CALLS, elapsed / 1e6 / MEASURED_CALLS);
+    }
+
+    private static BigDecimal minPrice(int i) {
+        return BigDecimal.valueOf(10 + i * 37 % 900);
+    }
+
+    private static int minStock(int i) {
+        return i % 20;
+    }
+}
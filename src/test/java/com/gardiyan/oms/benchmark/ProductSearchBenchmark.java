@@ -0,0 +1,113 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.model.id.UuidV7;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Latency of a one-word product search through {@code lower(name) LIKE '%word%'} and through the Lucene index,
+ * on a catalog where each word matches 0.1% of products. Run with
+ * {@code mvn test -Doms.benchmark=true -Dtest=ProductSearchBenchmark} and optionally
+ * {@code -Doms.benchmark.products=1000000}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchBenchmark {
+
+    private static final int WORDS = 1_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_CALLS = 20;
+    private static final int MEASURED_CALLS = 100;
+    private static final String[] COLOURS = {"red", "green", "blue", "black", "white", "silver", "gold"};
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int products;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        products = Integer.getInteger("oms.benchmark.products", 1_000_000);
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        String insert = "INSERT INTO products (id, name, description, price, stock_quantity, stock_shards, " +
+            "created_at, version) VALUES (?, ?, ?, ?, ?, 0, ?, 0)";
+        long startedAt = System.nanoTime();
+        for (int done = 0; done < products; done += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int i = done; i < Math.min(done + BATCH_SIZE, products); i++) {
+                String colour = COLOURS[i % COLOURS.length];
+                batch.add(new Object[]{UuidV7.next(), "Widget " + word(i) + " " + colour,
+                    "A " + colour + " widget, catalog number " + i, 10 + i % 990, 100, now});
+            }
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+        System.out.printf("loaded %,d products in %.1f s%n", products, (System.nanoTime() - startedAt) / 1e9);
+
+        startedAt = System.nanoTime();
+        productSearchIndex.rebuild();
+        System.out.printf("indexed %,d products in %.1f s%n", products, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    @Test
+    void compareLikeAndIndexedSearch() {
+        measure("LIKE", i -> productService.searchProducts(null, word(i * 7919), null, null, null, false,
+            CursorRequest.first(PAGE_SIZE)));
+        measure("index", i -> productService.searchProducts(word(i * 7919), null, null, null, null, false,
+            CursorRequest.first(PAGE_SIZE)));
+    }
+
+    private void measure(String label, IntFunction<CursorPage<ProductDTO>> search) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            search.apply(i);
+        }
+
+        long startedAt = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            rows += search.apply(WARMUP_CALLS + i).getItems().size();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+
+        System.out.printf("%-6s %,d products, %,d searches (%d rows each): %,.2f ms/search%n",
+            label, products, MEASURED_CALLS, rows / MEASURED_CALLS, elapsed / 1e6 / MEASURED_CALLS);
+    }
+
+    private static String word(int i) {
+        return String.format("model%03d", Math.floorMod(i, WORDS));
+    }
+}
@@ -0,0 +1,104 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.model.id.UuidV7;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.search.ProductSuggester;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency percentiles of {@link ProductSuggester#suggest} for prefixes of one to eight characters. Run with
+ * {@code mvn test -Doms.benchmark=true -Dtest=ProductSuggestBenchmark} and optionally
+ * {@code -Doms.benchmark.products=5000000}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSuggestBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int WARMUP_CALLS = 100_000;
+    private static final int MEASURED_CALLS = 100_000;
+    private static final String[] BRANDS = {"acme", "globex", "initech", "umbrella", "stark", "wayne", "wonka"};
+    private static final String[] KINDS = {"widget", "gadget", "sprocket", "gizmo", "doohickey", "thingamajig"};
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int products;
+    private final List<String> names = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        products = Integer.getInteger("oms.benchmark.products", 1_000_000);
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        String insert = "INSERT INTO products (id, name, description, price, stock_quantity, stock_shards, " +
+            "created_at, version) VALUES (?, ?, NULL, 10, 100, 0, ?, 0)";
+        for (int done = 0; done < products; done += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int i = done; i < Math.min(done + BATCH_SIZE, products); i++) {
+                String name = BRANDS[i % BRANDS.length] + " " + KINDS[i / 7 % KINDS.length] + " " + i;
+                batch.add(new Object[]{UuidV7.next(), name, now});
+                if (i % 1_000 == 0) {
+                    names.add(name);
+                }
+            }
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+
+        long startedAt = System.nanoTime();
+        productSuggester.load();
+        System.out.printf("loaded %,d products into the suggester in %.1f s%n", products,
+            (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    @Test
+    void suggestLatency() {
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            productSuggester.suggest(prefix(random), ProductSuggester.MAX_RESULTS);
+        }
+
+        long[] latencies = new long[MEASURED_CALLS];
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            String prefix = prefix(random);
+            long startedAt = System.nanoTime();
+            productSuggester.suggest(prefix, ProductSuggester.MAX_RESULTS);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%,d products, %,d suggestions: p50 %.1f us, p99 %.1f us, max %.1f us%n", products,
+            MEASURED_CALLS, latencies[MEASURED_CALLS / 2] / 1e3, latencies[MEASURED_CALLS * 99 / 100] / 1e3,
+            latencies[MEASURED_CALLS - 1] / 1e3);
+    }
+
+    private String prefix(Random random) {
+        String name = names.get(random.nextInt(names.size()));
+        return name.substring(0, 1 + random.nextInt(Math.min(8, name.length())));
+    }
+}
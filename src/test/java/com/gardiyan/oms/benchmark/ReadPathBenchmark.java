@@ -0,0 +1,116 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Latency and allocation per call of a 50-product page read through managed entities, the way the list
+ * endpoints used to, and through the column projections they use now. Run with
+ * {@code mvn test -Doms.benchmark=true -Dtest=ReadPathBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class ReadPathBenchmark {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_CALLS = 2_000;
+    private static final int MEASURED_CALLS = 10_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Read Product " + i);
+            product.setDescription("Read path benchmark product " + i);
+            product.setPrice(BigDecimal.valueOf(10 + i % 90));
+            product.setStockQuantity(100);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void compareEntityAndProjectionReads() {
+        measure("entities", this::readEntities);
+        measure("projection", () -> productService.getAllProducts(CursorRequest.first(PAGE_SIZE)).getItems());
+    }
+
+    // What getAllProducts did before: managed entities in a read-write transaction, copied into DTOs
+    private List<ProductDTO> readEntities() {
+        return transactionTemplate.execute(status -> productRepository
+            .findBy(Specification.<Product>where(null),
+                query -> query.sortBy(KeysetSpecification.ORDER).limit(PAGE_SIZE + 1).all())
+            .stream()
+            .limit(PAGE_SIZE)
+            .map(product -> {
+                ProductDTO dto = new ProductDTO();
+                dto.setId(product.getId());
+                dto.setName(product.getName());
+                dto.setDescription(product.getDescription());
+                dto.setPrice(product.getPrice());
+                dto.setStockQuantity(product.getStockQuantity());
+                dto.setStockShards(product.getStockShards());
+                dto.setCreatedAt(product.getCreatedAt());
+                return dto;
+            })
+            .toList());
+    }
+
+    private void measure(String label, Supplier<List<ProductDTO>> read) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            read.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            rows += read.get().size();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-10s %,d calls (%d rows each): %,.1f us/call, %,d bytes allocated/call%n",
+            label, MEASURED_CALLS, rows / MEASURED_CALLS, elapsed / 1_000.0 / MEASURED_CALLS,
+            allocated / MEASURED_CALLS);
+    }
+}
@@ -0,0 +1,119 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of the guarded stock UPDATE under contention: concurrent updateStock and createOrder calls
+ * against one product row. Run with {@code mvn test -Doms.benchmark=true -Dtest=StockContentionBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class StockContentionBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+    private OrderCreateRequest request;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setFirstName("Bench");
+        customer.setLastName("Mark");
+        customer.setEmail("bench@example.com");
+        customer.setPhone("+90 555 000 0000");
+        customer = customerRepository.save(customer);
+
+        product = new Product();
+        product.setName("Hot Product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(1_000_000);
+        product = productRepository.save(product);
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+    }
+
+    @Test
+    void measureGuardedStockUpdates() throws Exception {
+        run("updateStock (warmup)", () -> productService.updateStock(product.getId(), -1));
+        run("updateStock", () -> productService.updateStock(product.getId(), -1));
+
+        run("createOrder (warmup)", () -> orderService.createOrder(request));
+        run("createOrder", () -> orderService.createOrder(request));
+    }
+
+    private void run(String label, Runnable action) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        action.run();
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            System.out.printf("%-20s %7.0f calls/s on %d threads%n", label, THREADS * CALLS_PER_THREAD / seconds, THREADS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
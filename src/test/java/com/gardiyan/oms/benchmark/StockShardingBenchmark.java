@@ -0,0 +1,121 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Orders against one hot product, with its stock on the product row and then spread over shards.
+ * Run with {@code mvn test -Doms.benchmark=true -Dtest=StockShardingBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class StockShardingBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int SHARDS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+    private OrderCreateRequest request;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Customer customer = new Customer();
+        customer.setFirstName("Bench");
+        customer.setLastName("Mark");
+        customer.setEmail("bench@example.com");
+        customer.setPhone("+90 555 000 0000");
+        customer = customerRepository.save(customer);
+
+        product = new Product();
+        product.setName("Viral Product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(1_000_000);
+        product = productRepository.save(product);
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+    }
+
+    @Test
+    void compareSingleRowAndShardedStock() throws Exception {
+        run("single row (warmup)");
+        run("single row");
+
+        productService.enableStockSharding(product.getId(), SHARDS);
+        run("sharded (warmup)");
+        run(SHARDS + " shards");
+    }
+
+    private void run(String label) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        orderService.createOrder(request);
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            System.out.printf("%-20s %7.0f orders/s on %d threads%n", label, THREADS * ORDERS_PER_THREAD / seconds, THREADS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
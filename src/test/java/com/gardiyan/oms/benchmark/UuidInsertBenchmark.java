@@ -0,0 +1,77 @@
+package com.gardiyan.oms.benchmark;
+
+import com.gardiyan.oms.model.id.UuidV7;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Inserts orders-shaped rows keyed by random v4 and by v7 UUIDs and reports insert throughput and, on
+ * PostgreSQL, primary-key index size. Run with {@code mvn test -Doms.benchmark=true -Dtest=UuidInsertBenchmark}
+ * and optionally {@code -Doms.benchmark.rows=5000000}; point the test profile at PostgreSQL for index sizes.
+ */
+@EnabledIfSystemProperty(named = "oms.benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareRandomAndTimeOrderedKeys() throws SQLException {
+        int rows = Integer.getInteger("oms.benchmark.rows", 2_000_000);
+        boolean postgres = isPostgres();
+
+        run("uuid v4", "bench_orders_v4", rows, UUID::randomUUID, postgres);
+        run("uuid v7", "bench_orders_v7", rows, UuidV7::next, postgres);
+    }
+
+    private void run(String label, String table, int rows, Supplier<UUID> ids, boolean postgres) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, customer_id UUID NOT NULL, " +
+            "total_amount NUMERIC(19, 2) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        try {
+            UUID customerId = UUID.randomUUID();
+            String insert = "INSERT INTO " + table + " (id, customer_id, total_amount, created_at) VALUES (?, ?, ?, ?)";
+            long startedAt = System.nanoTime();
+            for (int done = 0; done < rows; done += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (int i = 0; i < Math.min(BATCH_SIZE, rows - done); i++) {
+                    batch.add(new Object[]{ids.get(), customerId, 100, now});
+                }
+                jdbcTemplate.batchUpdate(insert, batch);
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+            String indexSize = postgres
+                ? jdbcTemplate.queryForObject("SELECT pg_size_pretty(pg_relation_size(?::regclass))",
+                    String.class, table + "_pkey")
+                : "n/a (PostgreSQL only)";
+            System.out.printf("%-8s %,d rows in %.1f s (%,.0f rows/s), primary key index %s%n",
+                label, rows, seconds, rows / seconds, indexSize);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
+    }
+
+    private boolean isPostgres() throws SQLException {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.gardiyan.oms.integration.cache;
+
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.repository.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the warm-up runs at startup with no transaction around it. Uses the shipped warmup-size.
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerCacheIntegrationTest {
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${oms.cache.customers.warmup-size}")
+    private int warmupSize;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void warmUp_DefaultSize_LoadsCustomersWithoutACallerTransaction() {
+        // Given: saved through the repository, so no event puts it in the cache
+        Customer customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+90 555 123 4567");
+        customer = customerRepository.save(customer);
+
+        // When
+        customerCache.warmUp();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        boolean exists = customerCache.exists(customer.getId());
+
+        // Then
+        assertTrue(warmupSize > 0);
+        assertTrue(exists);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
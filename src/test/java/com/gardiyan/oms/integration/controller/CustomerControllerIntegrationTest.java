@@ -104,9 +104,9 @@ class CustomerControllerIntegrationTest {
     void getAllCustomers_Success() throws Exception {
         mockMvc.perform(get("/api/customers"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(customerId.toString()))
-            .andExpect(jsonPath("$[0].firstName").value(customer.getFirstName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(customerId.toString()))
+            .andExpect(jsonPath("$.items[0].firstName").value(customer.getFirstName()));
     }
 
     @Test
@@ -147,8 +147,8 @@ class CustomerControllerIntegrationTest {
                 .param("email", customer.getEmail())
                 .param("phone", customer.getPhone()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(customerId.toString()))
-            .andExpect(jsonPath("$[0].firstName").value(customer.getFirstName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(customerId.toString()))
+            .andExpect(jsonPath("$.items[0].firstName").value(customer.getFirstName()));
     }
 } 
\ No newline at end of file
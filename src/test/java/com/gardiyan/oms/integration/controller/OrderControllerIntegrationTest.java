@@ -160,8 +160,8 @@ class OrderControllerIntegrationTest {
         // Then get all orders
         mockMvc.perform(get("/api/orders"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].customerId").value(customer.getId().toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].customerId").value(customer.getId().toString()));
     }
 
     @Test
@@ -175,8 +175,8 @@ class OrderControllerIntegrationTest {
         // Then get orders by customer ID
         mockMvc.perform(get("/api/orders/customer/{customerId}", customer.getId()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].customerId").value(customer.getId().toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].customerId").value(customer.getId().toString()));
     }
 
     @Test
@@ -194,8 +194,8 @@ class OrderControllerIntegrationTest {
                 .param("startDate", LocalDateTime.now().minusDays(1).toString())
                 .param("endDate", LocalDateTime.now().plusDays(1).toString()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].customerId").value(customer.getId().toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].customerId").value(customer.getId().toString()));
     }
 
     @Test
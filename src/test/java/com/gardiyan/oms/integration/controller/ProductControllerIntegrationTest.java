@@ -96,9 +96,9 @@ class ProductControllerIntegrationTest {
     void getAllProducts_Success() throws Exception {
         mockMvc.perform(get("/api/products"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()))
-            .andExpect(jsonPath("$[0].name").value(product.getName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()))
+            .andExpect(jsonPath("$.items[0].name").value(product.getName()));
     }
 
     @Test
@@ -152,8 +152,8 @@ class ProductControllerIntegrationTest {
     void getProductsInStock_Success() throws Exception {
         mockMvc.perform(get("/api/products/in-stock"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()));
     }
 
     @Test
@@ -164,8 +164,8 @@ class ProductControllerIntegrationTest {
                 .param("maxPrice", "150")
                 .param("minStock", "5"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()))
-            .andExpect(jsonPath("$[0].name").value(product.getName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()))
+            .andExpect(jsonPath("$.items[0].name").value(product.getName()));
     }
 } 
\ No newline at end of file
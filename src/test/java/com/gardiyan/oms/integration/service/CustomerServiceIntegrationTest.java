@@ -1,7 +1,9 @@
 package com.gardiyan.oms.integration.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.EmailAlreadyExistsException;
@@ -15,7 +17,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -80,6 +81,22 @@ class CustomerServiceIntegrationTest {
             () -> customerService.createCustomer(createRequest));
     }
 
+    @Test
+    void createCustomer_LegacyMixedCaseEmail_FoundAndRejected() {
+        // Given: a row stored before emails were normalized
+        Customer legacy = new Customer();
+        legacy.setFirstName("Jane");
+        legacy.setLastName("Doe");
+        legacy.setEmail("Jane.Doe@Example.com");
+        legacy.setPhone("+90 555 987 6543");
+        legacy = customerRepository.save(legacy);
+
+        // When & Then
+        assertEquals(legacy.getId(), customerService.getCustomerByEmail("jane.doe@example.com").getId());
+        assertThrows(EmailAlreadyExistsException.class,
+            () -> customerService.createCustomer(createRequest));
+    }
+
     @Test
     void getCustomerById_Success() {
         // When
@@ -101,12 +118,11 @@ class CustomerServiceIntegrationTest {
     @Test
     void getAllCustomers_Success() {
         // When
-        List<CustomerDTO> result = customerService.getAllCustomers();
+        CursorPage<CustomerDTO> result = customerService.getAllCustomers(CursorRequest.first(50));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(customer.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(customer.getId(), result.getItems().get(0).getId());
     }
 
     @Test
@@ -147,15 +163,15 @@ class CustomerServiceIntegrationTest {
     @Test
     void searchCustomers_Success() {
         // When
-        List<CustomerDTO> result = customerService.searchCustomers(
+        CursorPage<CustomerDTO> result = customerService.searchCustomers(
             customer.getFirstName(),
             customer.getEmail(),
-            customer.getPhone()
+            customer.getPhone(),
+            CursorRequest.first(50)
         );
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(customer.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(customer.getId(), result.getItems().get(0).getId());
     }
 } 
\ No newline at end of file
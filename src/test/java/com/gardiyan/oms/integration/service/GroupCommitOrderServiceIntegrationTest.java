@@ -0,0 +1,158 @@
+package com.gardiyan.oms.integration.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.exception.InsufficientStockException;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.impl.GroupCommitOrderService;
+import com.gardiyan.oms.service.impl.OrderServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// Not @Transactional: calls inside a transaction bypass the group writer
+@SpringBootTest(properties = "oms.orders.group-commit.enabled=true")
+@ActiveProfiles("test")
+class GroupCommitOrderServiceIntegrationTest {
+
+    private static final int CALLERS = 16;
+    private static final int INITIAL_STOCK = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @SpyBean
+    private OrderServiceImpl orderServiceImpl;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+90 555 123 4567");
+        customer = customerRepository.save(customer);
+
+        product = new Product();
+        product.setName("Hot Product");
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setStockQuantity(INITIAL_STOCK);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void createOrder_GroupCommitEnabled_UsesGroupWriter() {
+        assertInstanceOf(GroupCommitOrderService.class, orderService);
+    }
+
+    @Test
+    void createOrder_ConcurrentCallers_EachGetsOwnOutcome() throws Exception {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        int created = 0;
+        int rejected = 0;
+        try {
+            List<Future<OrderDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(request);
+                }));
+            }
+            start.countDown();
+
+            for (Future<OrderDTO> future : futures) {
+                try {
+                    assertNotNull(future.get().getId());
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(InsufficientStockException.class, ex.getCause());
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(INITIAL_STOCK, created);
+        assertEquals(CALLERS - INITIAL_STOCK, rejected);
+        assertEquals(INITIAL_STOCK, orderRepository.count());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void createOrder_GroupTransactionFails_OrderPlacedOnItsOwn() {
+        // Given
+        doThrow(new IllegalStateException("Group write failed"))
+            .doCallRealMethod()
+            .when(orderServiceImpl).placeOrders(anyList());
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+
+        // When
+        OrderDTO result = orderService.createOrder(request);
+
+        // Then
+        assertNotNull(result.getId());
+        assertEquals(1, orderRepository.count());
+        assertEquals(INITIAL_STOCK - 1, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        verify(orderServiceImpl, times(2)).placeOrders(anyList());
+    }
+}
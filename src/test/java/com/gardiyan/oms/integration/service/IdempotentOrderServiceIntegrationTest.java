@@ -0,0 +1,177 @@
+package com.gardiyan.oms.integration.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.exception.IdempotencyKeyMismatchException;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.IdempotencyRecordRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.IdempotentOrderService;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.impl.IdempotentOrderServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+// Not @Transactional: both requests must commit on their own to race on the key's primary key
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotentOrderServiceIntegrationTest {
+
+    private static final int INITIAL_STOCK = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotentOrderService idempotentOrderService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        // deleteAll would skip the records: they always report isNew, which delete treats as not stored
+        recordRepository.deleteAllInBatch();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+90 555 123 4567");
+        customer = customerRepository.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordRepository.deleteAllInBatch();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void createOrder_TwoInstancesRaceOnOneKey_OnlyOneOrderKept() throws Exception {
+        // Given: two instances that each create their order before either stores the key. The orders are for
+        // different products so neither blocks on the other's stock row.
+        Product first = product("First");
+        Product second = product("Second");
+        CyclicBarrier bothCreated = new CyclicBarrier(2);
+        OrderService racing = mock(OrderService.class, delegatesTo(orderService));
+        doAnswer(invocation -> {
+            OrderDTO created = orderService.createOrder(invocation.getArgument(0));
+            bothCreated.await(10, TimeUnit.SECONDS);
+            return created;
+        }).when(racing).createOrder(any());
+        IdempotentOrderServiceImpl instanceA = new IdempotentOrderServiceImpl(racing, recordRepository,
+            transactionTemplate, 100, Duration.ofHours(1));
+        IdempotentOrderServiceImpl instanceB = new IdempotentOrderServiceImpl(racing, recordRepository,
+            transactionTemplate, 100, Duration.ofHours(1));
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<OrderDTO> placed = new ArrayList<>();
+        int rejected = 0;
+        try {
+            Future<OrderDTO> a = executor.submit(() -> instanceA.createOrder("key-1", request(first)));
+            Future<OrderDTO> b = executor.submit(() -> instanceB.createOrder("key-1", request(second)));
+            for (Future<OrderDTO> future : List.of(a, b)) {
+                try {
+                    placed.add(future.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(IdempotencyKeyMismatchException.class, ex.getCause());
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then: the loser rolled back its order and stock, and its different request was rejected
+        assertEquals(1, placed.size());
+        assertEquals(1, rejected);
+        assertEquals(1, orderRepository.count());
+        assertEquals(placed.get(0).getId(), recordRepository.findById("key-1").orElseThrow().getOrderId());
+        int remaining = stock(first) + stock(second);
+        assertEquals(2 * INITIAL_STOCK - 1, remaining);
+    }
+
+    @Test
+    void createOrder_KeyReusedWithDifferentRequest_Rejected() {
+        // Given
+        Product first = product("First");
+        Product second = product("Second");
+        OrderDTO order = idempotentOrderService.createOrder("key-1", request(first));
+
+        // When & Then
+        assertEquals(order.getId(), idempotentOrderService.createOrder("key-1", request(first)).getId());
+        assertThrows(IdempotencyKeyMismatchException.class,
+            () -> idempotentOrderService.createOrder("key-1", request(second)));
+        assertEquals(1, orderRepository.count());
+        assertEquals(INITIAL_STOCK, stock(second));
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setStockQuantity(INITIAL_STOCK);
+        return productRepository.save(product);
+    }
+
+    private OrderCreateRequest request(Product product) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+}
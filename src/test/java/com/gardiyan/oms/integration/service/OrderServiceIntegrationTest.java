@@ -1,28 +1,39 @@
 package com.gardiyan.oms.integration.service;
 
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
 import com.gardiyan.oms.dto.request.order.OrderItemRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.event.CustomerChangedEvent;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.OrderNotFoundException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.integration.support.QueryCounter;
 import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.CustomerRepository;
 import com.gardiyan.oms.repository.OrderRepository;
 import com.gardiyan.oms.repository.ProductRepository;
 import com.gardiyan.oms.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -45,6 +56,12 @@ class OrderServiceIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CustomerCache customerCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Customer customer;
     private Product product;
     private OrderCreateRequest createRequest;
@@ -94,13 +111,59 @@ class OrderServiceIntegrationTest {
         assertEquals(1, result.getItems().size());
         assertEquals(product.getId(), result.getItems().get(0).getProductId());
         assertEquals(2, result.getItems().get(0).getQuantity());
-        assertEquals(BigDecimal.valueOf(200), result.getTotalAmount());
+        assertEquals(new BigDecimal("200.00"), result.getTotalAmount());
 
         // Verify product stock is updated
         Product updatedProduct = productRepository.findById(product.getId()).orElseThrow();
         assertEquals(8, updatedProduct.getStockQuantity());
     }
 
+    @Test
+    void createOrder_DuplicateProducts_MergedIntoSingleLine() {
+        // Given
+        OrderItemRequest duplicate = new OrderItemRequest();
+        duplicate.setProductId(product.getId());
+        duplicate.setQuantity(3);
+        createRequest.setItems(List.of(itemRequest, duplicate));
+
+        // When
+        OrderDTO result = orderService.createOrder(createRequest);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(5, result.getItems().get(0).getQuantity());
+        Product updatedProduct = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(5, updatedProduct.getStockQuantity());
+    }
+
+    @Test
+    void createOrder_QueryCountIndependentOfBasketSize() {
+        // Given
+        OrderCreateRequest smallBasket = basketOf(5);
+        OrderCreateRequest largeBasket = basketOf(40);
+        customerCache.get(customer.getId());
+
+        // When & Then
+        QueryCounter.assertSizeIndependent(entityManager,
+            () -> orderService.createOrder(smallBasket),
+            () -> orderService.createOrder(largeBasket));
+    }
+
+    @Test
+    void createOrder_WarmCustomerCache_SkipsCustomerLookup() {
+        // Given
+        OrderCreateRequest first = basketOf(1);
+        OrderCreateRequest second = basketOf(1);
+        customerCache.onCustomerChanged(new CustomerChangedEvent(customer.getId(), List.of()));
+
+        // When
+        long cold = QueryCounter.count(entityManager, () -> orderService.createOrder(first));
+        long warm = QueryCounter.count(entityManager, () -> orderService.createOrder(second));
+
+        // Then
+        assertEquals(cold - 1, warm);
+    }
+
     @Test
     void createOrder_CustomerNotFound_ThrowsException() {
         // Given
@@ -132,6 +195,38 @@ class OrderServiceIntegrationTest {
             () -> orderService.createOrder(createRequest));
     }
 
+    @Test
+    void createOrders_BadOrderDoesNotAbortBatch() {
+        // Given
+        OrderItemRequest tooMany = new OrderItemRequest();
+        tooMany.setProductId(product.getId());
+        tooMany.setQuantity(50);
+        OrderCreateRequest insufficient = new OrderCreateRequest();
+        insufficient.setCustomerId(customer.getId());
+        insufficient.setItems(List.of(tooMany));
+
+        OrderCreateRequest unknownCustomer = new OrderCreateRequest();
+        unknownCustomer.setCustomerId(UUID.randomUUID());
+        unknownCustomer.setItems(List.of(itemRequest));
+
+        // When
+        List<OrderBatchResult> results = orderService.createOrders(
+            List.of(createRequest, insufficient, unknownCustomer, createRequest));
+
+        // Then
+        assertEquals(4, results.size());
+        assertNotNull(results.get(0).getOrderId());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getOrderId());
+        assertTrue(results.get(1).getError().startsWith("Insufficient stock"));
+        assertEquals("Customer not found", results.get(2).getError());
+        assertNotNull(results.get(3).getOrderId());
+
+        assertEquals(2, orderRepository.count());
+        Product updatedProduct = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(6, updatedProduct.getStockQuantity());
+    }
+
     @Test
     void getOrderById_Success() {
         // Given
@@ -159,11 +254,46 @@ class OrderServiceIntegrationTest {
         orderService.createOrder(createRequest);
 
         // When
-        List<OrderDTO> result = orderService.getAllOrders();
+        CursorPage<OrderDTO> result = orderService.getAllOrders(CursorRequest.first(50));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
+    }
+
+    @Test
+    void getAllOrders_QueryCountIndependentOfPageSize() {
+        // Given
+        placeOrders(20);
+
+        // When & Then
+        QueryCounter.assertSizeIndependent(entityManager,
+            () -> assertEquals(2, orderService.getAllOrders(CursorRequest.first(2)).getItems().size()),
+            () -> assertEquals(20, orderService.getAllOrders(CursorRequest.first(20)).getItems().size()));
+    }
+
+    @Test
+    void getOrdersByCustomerId_QueryCountIndependentOfPageSize() {
+        // Given
+        placeOrders(20);
+        customerCache.get(customer.getId());
+
+        // When & Then
+        QueryCounter.assertSizeIndependent(entityManager,
+            () -> orderService.getOrdersByCustomerId(customer.getId(), CursorRequest.first(2)),
+            () -> orderService.getOrdersByCustomerId(customer.getId(), CursorRequest.first(20)));
+    }
+
+    @Test
+    void searchOrders_QueryCountIndependentOfPageSize() {
+        // Given
+        placeOrders(20);
+        OrderSearchRequest searchRequest = new OrderSearchRequest();
+        searchRequest.setCustomerName(customer.getFirstName());
+
+        // When & Then
+        QueryCounter.assertSizeIndependent(entityManager,
+            () -> orderService.searchOrders(searchRequest, CursorRequest.first(2)),
+            () -> orderService.searchOrders(searchRequest, CursorRequest.first(20)));
     }
 
     @Test
@@ -172,12 +302,11 @@ class OrderServiceIntegrationTest {
         orderService.createOrder(createRequest);
 
         // When
-        List<OrderDTO> result = orderService.getOrdersByCustomerId(customer.getId());
+        CursorPage<OrderDTO> result = orderService.getOrdersByCustomerId(customer.getId(), CursorRequest.first(50));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(customer.getId(), result.get(0).getCustomerId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(customer.getId(), result.getItems().get(0).getCustomerId());
     }
 
     @Test
@@ -188,12 +317,11 @@ class OrderServiceIntegrationTest {
         searchRequest.setCustomerName(customer.getFirstName());
 
         // When
-        List<OrderDTO> result = orderService.searchOrders(searchRequest);
+        CursorPage<OrderDTO> result = orderService.searchOrders(searchRequest, CursorRequest.first(50));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(customer.getId(), result.get(0).getCustomerId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(customer.getId(), result.getItems().get(0).getCustomerId());
     }
 
     @Test
@@ -206,12 +334,93 @@ class OrderServiceIntegrationTest {
         searchRequest.setEndDate(LocalDateTime.now().plusDays(1));
 
         // When
-        List<OrderDTO> result = orderService.searchOrders(searchRequest);
+        CursorPage<OrderDTO> result = orderService.searchOrders(searchRequest, CursorRequest.first(50));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(customer.getId(), result.getItems().get(0).getCustomerId());
+    }
+
+    @Test
+    void searchOrders_AllFiltersCombinedInOneQuery() {
+        // Given
+        OrderDTO large = orderService.createOrder(createRequest);
+        placeOrders(2);
+        OrderSearchRequest searchRequest = new OrderSearchRequest();
+        searchRequest.setCustomerName("doe");
+        searchRequest.setStartDate(LocalDateTime.now().minusDays(1));
+        searchRequest.setEndDate(LocalDateTime.now().plusDays(1));
+        searchRequest.setMinAmount(BigDecimal.valueOf(100));
+        searchRequest.setMaxAmount(BigDecimal.valueOf(500));
+        CursorRequest page = CursorRequest.first(50);
+        page.setCount(true);
+
+        // When
+        CursorPage<OrderDTO> result = orderService.searchOrders(searchRequest, page);
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(customer.getId(), result.get(0).getCustomerId());
+        assertEquals(List.of(large.getId()), result.getItems().stream().map(OrderDTO::getId).toList());
+        assertEquals(1L, result.getTotalCount());
+    }
+
+    @Test
+    void searchOrders_Descending_PagesNewestFirst() {
+        // Given
+        placeOrders(3);
+        OrderSearchRequest ascending = new OrderSearchRequest();
+        List<UUID> expected = new ArrayList<>(orderService.searchOrders(ascending, CursorRequest.first(50)).getItems()
+            .stream().map(OrderDTO::getId).toList());
+        Collections.reverse(expected);
+        OrderSearchRequest descending = new OrderSearchRequest();
+        descending.setDirection(Sort.Direction.DESC);
+
+        // When
+        CursorPage<OrderDTO> first = orderService.searchOrders(descending, CursorRequest.first(2));
+        CursorPage<OrderDTO> second = orderService.searchOrders(descending,
+            CursorRequest.after(first.getNextCursor(), 2));
+
+        // Then
+        List<UUID> actual = new ArrayList<>();
+        first.getItems().forEach(order -> actual.add(order.getId()));
+        second.getItems().forEach(order -> actual.add(order.getId()));
+        assertEquals(expected, actual);
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void exportOrders_GroupsItemsPerOrderInCreationOrder() {
+        // Given
+        OrderCreateRequest basket = basketOf(3);
+        OrderDTO first = orderService.createOrder(createRequest);
+        OrderDTO second = orderService.createOrder(basket);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<OrderDTO> exported = new ArrayList<>();
+        long count = orderService.exportOrders(new OrderSearchRequest(), exported::add);
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(List.of(first.getId(), second.getId()), exported.stream().map(OrderDTO::getId).toList());
+        assertEquals(1, exported.get(0).getItems().size());
+        assertEquals(3, exported.get(1).getItems().size());
+        assertEquals(second.getTotalAmount(), exported.get(1).getTotalAmount());
+    }
+
+    @Test
+    void exportOrders_AppliesSearchFilters() {
+        // Given
+        orderService.createOrder(createRequest);
+        OrderSearchRequest searchRequest = new OrderSearchRequest();
+        searchRequest.setCustomerId(UUID.randomUUID());
+
+        // When
+        List<OrderDTO> exported = new ArrayList<>();
+        orderService.exportOrders(searchRequest, exported::add);
+
+        // Then
+        assertTrue(exported.isEmpty());
     }
 
     @Test
@@ -235,4 +444,32 @@ class OrderServiceIntegrationTest {
         assertThrows(OrderNotFoundException.class,
             () -> orderService.deleteOrder(UUID.randomUUID()));
     }
-} 
\ No newline at end of file
+
+    private OrderCreateRequest basketOf(int lines) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product basketProduct = new Product();
+            basketProduct.setName("Basket Product " + i);
+            basketProduct.setPrice(BigDecimal.valueOf(10));
+            basketProduct.setStockQuantity(100);
+            basketProduct = productRepository.save(basketProduct);
+
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(basketProduct.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(items);
+        return request;
+    }
+
+    // Each order holds three lines so a per-order or per-item load would show up in the statement count
+    private void placeOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            orderService.createOrder(basketOf(3));
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.gardiyan.oms.integration.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.inventory.StockManager;
 import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.ProductRepository;
 import com.gardiyan.oms.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +25,10 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +44,12 @@ class ProductServiceIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private StockManager stockManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Product product;
     private ProductCreateRequest createRequest;
     private ProductUpdateRequest updateRequest;
@@ -93,12 +111,59 @@ class ProductServiceIntegrationTest {
     @Test
     void getAllProducts_Success() {
         // When
-        List<ProductDTO> result = productService.getAllProducts();
+        CursorPage<ProductDTO> result = productService.getAllProducts(CursorRequest.first(50));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(product.getId(), result.getItems().get(0).getId());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void readPaths_DoNotLoadEntities() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        ProductDTO byId = productService.getProductById(product.getId());
+        CursorPage<ProductDTO> page = productService.getAllProducts(CursorRequest.first(50));
+
+        // Then
+        assertEquals(product.getName(), byId.getName());
+        assertEquals(10, byId.getStockQuantity());
+        assertEquals(1, page.getItems().size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getAllProducts_WalksPagesWithCursor() {
+        // Given
+        for (int i = 0; i < 6; i++) {
+            Product extra = new Product();
+            extra.setName("Paged Product " + i);
+            extra.setPrice(BigDecimal.TEN);
+            extra.setStockQuantity(1);
+            productRepository.save(extra);
+        }
+
+        // When
+        Set<UUID> seen = new LinkedHashSet<>();
+        CursorPage<ProductDTO> page = productService.getAllProducts(CursorRequest.first(3));
+        int pages = 1;
+        page.getItems().forEach(item -> seen.add(item.getId()));
+        while (page.getNextCursor() != null) {
+            page = productService.getAllProducts(CursorRequest.after(page.getNextCursor(), 3));
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            pages++;
+        }
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(product.getId(), result.get(0).getId());
+        assertEquals(7, seen.size());
+        assertEquals(3, pages);
+        assertTrue(seen.contains(product.getId()));
     }
 
     @Test
@@ -146,6 +211,18 @@ class ProductServiceIntegrationTest {
         assertEquals(15, result.getStockQuantity());
     }
 
+    @Test
+    void updateStock_BumpsVersion() {
+        // Given
+        long before = productService.getProductById(product.getId()).getVersion();
+
+        // When
+        ProductDTO result = productService.updateStock(product.getId(), -1);
+
+        // Then
+        assertEquals(before + 1, result.getVersion());
+    }
+
     @Test
     void updateStock_InsufficientStock_ThrowsException() {
         // When & Then
@@ -153,29 +230,108 @@ class ProductServiceIntegrationTest {
             () -> productService.updateStock(product.getId(), -15));
     }
 
+    @Test
+    void enableStockSharding_StockReportedAsShardTotal() {
+        // When
+        ProductDTO sharded = productService.enableStockSharding(product.getId(), 4);
+        ProductDTO adjusted = productService.updateStock(product.getId(), -7);
+
+        // Then
+        assertEquals(4, sharded.getStockShards());
+        assertEquals(10, sharded.getStockQuantity());
+        assertEquals(3, adjusted.getStockQuantity());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(1, productService.getProductsInStock(CursorRequest.first(50)).getItems().size());
+    }
+
+    @Test
+    void reserve_ShardedProduct_DrawsAcrossShards() {
+        // Given: 10 units over 4 shards is 3/3/2/2, so 9 units need every shard
+        productService.enableStockSharding(product.getId(), 4);
+
+        // When
+        List<UUID> first = stockManager.reserve(Map.of(product.getId(), 9));
+        List<UUID> second = stockManager.reserve(Map.of(product.getId(), 2));
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(List.of(product.getId()), second);
+        assertEquals(1, productService.getProductById(product.getId()).getStockQuantity());
+    }
+
+    @Test
+    void disableStockSharding_StockMovedBackToProduct() {
+        // Given
+        productService.enableStockSharding(product.getId(), 4);
+        stockManager.reserve(Map.of(product.getId(), 4));
+
+        // When
+        ProductDTO result = productService.disableStockSharding(product.getId());
+
+        // Then
+        assertEquals(0, result.getStockShards());
+        assertEquals(6, result.getStockQuantity());
+        assertEquals(6, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void enableStockSharding_InvalidShardCount_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.enableStockSharding(product.getId(), 1));
+    }
+
     @Test
     void getProductsInStock_Success() {
         // When
-        List<ProductDTO> result = productService.getProductsInStock();
+        CursorPage<ProductDTO> result = productService.getProductsInStock(CursorRequest.first(50));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
     }
 
     @Test
     void searchProducts_Success() {
         // When
-        List<ProductDTO> result = productService.searchProducts(
+        CursorPage<ProductDTO> result = productService.searchProducts(
+            null,
             product.getName(),
             BigDecimal.valueOf(50),
             BigDecimal.valueOf(150),
-            5
+            5,
+            false,
+            CursorRequest.first(50)
         );
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(product.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(product.getId(), result.getItems().get(0).getId());
+    }
+
+    @Test
+    void searchProducts_WithFacets_CountsPriceAndStockBands() {
+        // Given
+        saveProduct("Cheap Product", BigDecimal.valueOf(20), 0);
+        saveProduct("Mid Product", BigDecimal.valueOf(60), 3);
+
+        // When
+        ProductSearchPage result = productService.searchProducts(null, "Product", null, null, null, true,
+            CursorRequest.first(1));
+
+        // Then
+        ProductFacetsDTO facets = result.getFacets();
+        assertEquals(1, result.getItems().size());
+        assertEquals(List.of(1L, 0L, 1L, 1L, 0L, 0L),
+            facets.getPriceBands().stream().map(ProductFacetsDTO.PriceBand::getCount).toList());
+        assertEquals(1, facets.getOutOfStock());
+        assertEquals(1, facets.getLowStock());
+        assertEquals(1, facets.getPlentyStock());
+    }
+
+    private void saveProduct(String name, BigDecimal price, int stock) {
+        Product other = new Product();
+        other.setName(name);
+        other.setPrice(price);
+        other.setStockQuantity(stock);
+        productRepository.save(other);
     }
-} 
\ No newline at end of file
+}
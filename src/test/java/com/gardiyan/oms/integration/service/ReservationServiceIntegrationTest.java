@@ -0,0 +1,140 @@
+package com.gardiyan.oms.integration.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.dto.response.order.ReservationDTO;
+import com.gardiyan.oms.exception.InsufficientStockException;
+import com.gardiyan.oms.exception.ReservationNotFoundException;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.StockReservationRepository;
+import com.gardiyan.oms.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ReservationServiceIntegrationTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Customer customer;
+    private Product product;
+    private OrderCreateRequest createRequest;
+    private OrderItemRequest itemRequest;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+90 555 123 4567");
+        customer = customerRepository.save(customer);
+
+        product = new Product();
+        product.setName("Test Product");
+        product.setDescription("Test Description");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStockQuantity(10);
+        product = productRepository.save(product);
+
+        itemRequest = new OrderItemRequest();
+        itemRequest.setProductId(product.getId());
+        itemRequest.setQuantity(2);
+
+        createRequest = new OrderCreateRequest();
+        createRequest.setCustomerId(customer.getId());
+        createRequest.setItems(List.of(itemRequest));
+    }
+
+    @Test
+    void reserve_Success_HoldsStock() {
+        // When
+        ReservationDTO result = reservationService.reserve(createRequest);
+
+        // Then
+        assertNotNull(result.getId());
+        assertNotNull(result.getExpiresAt());
+        assertEquals(2, result.getItems().get(product.getId()));
+        assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void reserve_InsufficientStock_ThrowsException() {
+        // Given
+        itemRequest.setQuantity(15);
+
+        // When & Then
+        assertThrows(InsufficientStockException.class,
+            () -> reservationService.reserve(createRequest));
+    }
+
+    @Test
+    void confirm_Success_CreatesOrderWithoutTakingStockAgain() {
+        // Given
+        ReservationDTO reservation = reservationService.reserve(createRequest);
+
+        // When
+        OrderDTO order = reservationService.confirm(reservation.getId());
+
+        // Then
+        assertEquals(customer.getId(), order.getCustomerId());
+        assertEquals(new BigDecimal("200.00"), order.getTotalAmount());
+        assertFalse(reservationRepository.existsById(reservation.getId()));
+        assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void release_Success_RestoresStock() {
+        // Given
+        ReservationDTO reservation = reservationService.reserve(createRequest);
+
+        // When
+        reservationService.release(reservation.getId());
+
+        // Then
+        assertFalse(reservationRepository.existsById(reservation.getId()));
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void confirm_NotFound_ThrowsException() {
+        // When & Then
+        assertThrows(ReservationNotFoundException.class,
+            () -> reservationService.confirm(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.gardiyan.oms.integration.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.request.order.OrderItemRequest;
+import com.gardiyan.oms.exception.InsufficientStockException;
+import com.gardiyan.oms.model.Customer;
+import com.gardiyan.oms.model.Product;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: every call must commit on its own for the threads to contend on the same row
+@SpringBootTest
+@ActiveProfiles("test")
+class StockConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 100;
+    private static final int INITIAL_STOCK = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+
+        customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmail("john.doe@example.com");
+        customer.setPhone("+90 555 123 4567");
+        customer = customerRepository.save(customer);
+
+        product = new Product();
+        product.setName("Hot Product");
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setStockQuantity(INITIAL_STOCK);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void updateStock_ConcurrentDecrements_NeverOversell() throws Exception {
+        AtomicInteger succeeded = runConcurrently(() -> productService.updateStock(product.getId(), -1));
+
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void createOrder_ConcurrentOrders_NeverOversell() throws Exception {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerId(customer.getId());
+        request.setItems(List.of(item));
+
+        AtomicInteger succeeded = runConcurrently(() -> orderService.createOrder(request));
+
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(INITIAL_STOCK, orderRepository.count());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    private AtomicInteger runConcurrently(Runnable action) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            action.run();
+                            succeeded.incrementAndGet();
+                        } catch (InsufficientStockException ignored) {
+                            // expected once the stock is exhausted
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded;
+    }
+}
@@ -0,0 +1,43 @@
+package com.gardiyan.oms.integration.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while an action runs. Requires
+ * {@code hibernate.generate_statistics=true}, which the test profile sets.
+ */
+public final class QueryCounter {
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Runs {@code action} against an empty persistence context and returns the number of statements it issued,
+     * including the ones flushed at its end.
+     */
+    public static long count(EntityManager entityManager, Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Fails when {@code large} issues more statements than {@code small}; both should read the same data shape,
+     * only with a different number of rows.
+     */
+    public static void assertSizeIndependent(EntityManager entityManager, Runnable small, Runnable large) {
+        long smallCount = count(entityManager, small);
+        long largeCount = count(entityManager, large);
+        assertEquals(smallCount, largeCount,
+            "Statement count grew with result size: " + smallCount + " -> " + largeCount);
+    }
+}
@@ -0,0 +1,107 @@
+package com.gardiyan.oms.unit.cache;
+
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerCache cache;
+    private UUID customerId;
+    private CustomerView customerView;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CustomerCache(customerRepository, new TransactionTemplate(transactionManager),
+            new SimpleMeterRegistry(), 100, Duration.ofMinutes(30), Duration.ofMinutes(1), 10);
+        customerId = UUID.randomUUID();
+        customerView = new CustomerView(customerId, "John", "Doe", "john.doe@example.com", "+90 555 123 4567",
+            LocalDateTime.now(), 0);
+    }
+
+    @Test
+    void exists_UnknownId_MissIsCached() {
+        // Given
+        when(customerRepository.findViewById(customerId)).thenReturn(Optional.empty());
+
+        // When
+        boolean first = cache.exists(customerId);
+        boolean second = cache.exists(customerId);
+
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        verify(customerRepository, times(1)).findViewById(customerId);
+    }
+
+    @Test
+    void getByEmail_NormalizesAndFillsIdIndex() {
+        // Given
+        when(customerRepository.findViewByEmail("john.doe@example.com")).thenReturn(Optional.of(customerView));
+
+        // When
+        Optional<CustomerView> byEmail = cache.getByEmail(" John.Doe@Example.com");
+        Optional<CustomerView> byId = cache.get(customerId);
+
+        // Then
+        assertEquals(Optional.of(customerView), byEmail);
+        assertEquals(Optional.of(customerView), byId);
+        verify(customerRepository, never()).findViewById(any());
+    }
+
+    @Test
+    void onCustomerChanged_DropsIdAndEmailEntries() {
+        // Given
+        when(customerRepository.findViewByEmail("john.doe@example.com")).thenReturn(Optional.of(customerView));
+        cache.getByEmail("john.doe@example.com");
+
+        // When
+        cache.onCustomerChanged(new CustomerChangedEvent(customerId, List.of("john.doe@example.com")));
+        cache.getByEmail("john.doe@example.com");
+
+        // Then
+        verify(customerRepository, times(2)).findViewByEmail("john.doe@example.com");
+    }
+
+    @Test
+    void warmUp_LoadsRecentCustomers() {
+        // Given
+        when(customerRepository.findViews(isNull(), any(Sort.class), eq(10))).thenReturn(List.of(customerView));
+
+        // When
+        cache.warmUp();
+
+        // Then
+        assertTrue(cache.exists(customerId));
+        assertEquals(Optional.of(customerView), cache.getByEmail("john.doe@example.com"));
+        verify(customerRepository, never()).findViewById(any());
+        verify(customerRepository, never()).findViewByEmail(any());
+    }
+}
@@ -0,0 +1,127 @@
+package com.gardiyan.oms.unit.cache;
+
+import com.gardiyan.oms.cache.ProductCache;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private UUID productId;
+    private ProductView productView;
+
+    @BeforeEach
+    void setUp() {
+        productId = UUID.randomUUID();
+        productView = new ProductView(productId, "Test Product", null, BigDecimal.valueOf(100), 10, 0,
+            LocalDateTime.now(), 0);
+    }
+
+    @Test
+    void get_SecondRead_ServedFromCache() {
+        // Given
+        ProductCache cache = cache(Duration.ofMinutes(1));
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+
+        // When
+        cache.get(productId);
+        Optional<ProductView> result = cache.get(productId);
+
+        // Then
+        assertEquals(Optional.of(productView), result);
+        verify(productRepository, times(1)).findViewById(productId);
+    }
+
+    @Test
+    void get_MissingProduct_IsNotCached() {
+        // Given
+        ProductCache cache = cache(Duration.ofMinutes(1));
+        when(productRepository.findViewById(productId)).thenReturn(Optional.empty());
+
+        // When
+        cache.get(productId);
+        Optional<ProductView> result = cache.get(productId);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(productRepository, times(2)).findViewById(productId);
+    }
+
+    @Test
+    void get_StockOlderThanStalenessBound_Reloads() {
+        // Given
+        ProductCache cache = cache(Duration.ZERO);
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+
+        // When
+        cache.get(productId);
+        cache.get(productId);
+
+        // Then
+        verify(productRepository, atLeast(2)).findViewById(productId);
+    }
+
+    @Test
+    void onProductChanged_InvalidatesEntry() {
+        // Given
+        ProductCache cache = cache(Duration.ofMinutes(1));
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+        cache.get(productId);
+
+        // When
+        cache.onProductChanged(ProductChangedEvent.of(productId));
+        cache.get(productId);
+
+        // Then
+        verify(productRepository, times(2)).findViewById(productId);
+    }
+
+    @Test
+    void getCatalog_LoadsOnlyMissesInOneQuery() {
+        // Given
+        ProductCache cache = cache(Duration.ofMinutes(1));
+        UUID otherId = UUID.randomUUID();
+        ProductView other = new ProductView(otherId, "Other Product", null, BigDecimal.ONE, 5, 0,
+            LocalDateTime.now(), 0);
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(other));
+        cache.get(productId);
+
+        // When
+        Map<UUID, ProductView> result = cache.getCatalog(Set.of(productId, otherId, UUID.randomUUID()));
+
+        // Then
+        assertEquals(Map.of(productId, productView, otherId, other), result);
+        verify(productRepository, times(1)).findViews(any(), any(Sort.class), eq(2));
+    }
+
+    private ProductCache cache(Duration stockStaleness) {
+        return new ProductCache(productRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10),
+            stockStaleness);
+    }
+}
@@ -0,0 +1,120 @@
+package com.gardiyan.oms.unit.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gardiyan.oms.cache.ProductResponseCache;
+import com.gardiyan.oms.cache.ProductResponseCache.SerializedResponse;
+import com.gardiyan.oms.dto.request.CursorRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ProductResponseCache cache;
+    private UUID productId;
+    private ProductDTO productDTO;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(objectMapper, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        productId = UUID.randomUUID();
+        productDTO = new ProductDTO();
+        productDTO.setId(productId);
+        productDTO.setName("Test Product");
+        productDTO.setPrice(BigDecimal.valueOf(100));
+        productDTO.setStockQuantity(10);
+        productDTO.setVersion(3L);
+    }
+
+    @Test
+    void product_SecondRead_ServedFromSerializedBytes() throws IOException {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.product(productId, () -> load(loads), product -> "\"3-10\"");
+        SerializedResponse result = cache.product(productId, () -> load(loads), product -> "\"3-10\"");
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals("\"3-10\"", result.etag());
+        assertArrayEquals(objectMapper.writeValueAsBytes(productDTO), result.json());
+        assertArrayEquals(result.json(), new GZIPInputStream(new ByteArrayInputStream(result.gzip())).readAllBytes());
+    }
+
+    @Test
+    void serializedResponse_GzipHasItsOwnETagAndHonoursQValues() {
+        // Given
+        SerializedResponse response = new SerializedResponse("\"3-10\"", new byte[0], new byte[0]);
+
+        // When & Then
+        assertEquals("\"3-10-gz\"", response.gzipEtag());
+        assertTrue(SerializedResponse.acceptsGzip("gzip, deflate, br"));
+        assertTrue(SerializedResponse.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(SerializedResponse.acceptsGzip("*"));
+        assertFalse(SerializedResponse.acceptsGzip("gzip;q=0, *"));
+        assertFalse(SerializedResponse.acceptsGzip("*;q=0"));
+        assertFalse(SerializedResponse.acceptsGzip("gzip;q=0.0"));
+        assertFalse(SerializedResponse.acceptsGzip("identity"));
+        assertFalse(SerializedResponse.acceptsGzip(null));
+    }
+
+    @Test
+    void onProductChanged_DropsProductAndInStockPages() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger pageLoads = new AtomicInteger();
+        CursorRequest page = CursorRequest.first(20);
+        cache.product(productId, () -> load(loads), product -> "\"3-10\"");
+        cache.inStock(page, () -> loadPage(pageLoads), products -> "\"page\"");
+
+        // When
+        cache.onProductChanged(ProductChangedEvent.of(UUID.randomUUID()));
+        cache.product(productId, () -> load(loads), product -> "\"3-10\"");
+        cache.inStock(page, () -> loadPage(pageLoads), products -> "\"page\"");
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(2, pageLoads.get());
+    }
+
+    @Test
+    void inStock_DifferentPages_CachedSeparately() {
+        // Given
+        AtomicInteger pageLoads = new AtomicInteger();
+
+        // When
+        cache.inStock(CursorRequest.first(20), () -> loadPage(pageLoads), products -> "\"page\"");
+        cache.inStock(CursorRequest.after("next", 20), () -> loadPage(pageLoads), products -> "\"page\"");
+        cache.inStock(CursorRequest.first(20), () -> loadPage(pageLoads), products -> "\"page\"");
+
+        // Then
+        assertEquals(2, pageLoads.get());
+    }
+
+    private ProductDTO load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return productDTO;
+    }
+
+    private CursorPage<ProductDTO> loadPage(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new CursorPage<>(List.of(productDTO), null, null);
+    }
+}
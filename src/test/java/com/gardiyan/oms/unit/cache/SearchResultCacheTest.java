@@ -0,0 +1,96 @@
+package com.gardiyan.oms.unit.cache;
+
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.cache.SearchResultCache.Table;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.event.OrderChangedEvent;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchResultCacheTest {
+
+    @Mock
+    private ObjectProvider<ProductSearchIndex> productSearchIndex;
+
+    private SearchResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(new SimpleMeterRegistry(), productSearchIndex, 1000, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_SameArguments_LoadedOnce() {
+        // When
+        CursorPage<String> first = search(EnumSet.of(Table.PRODUCTS), "widget", 20);
+        CursorPage<String> second = search(EnumSet.of(Table.PRODUCTS), "widget", 20);
+        search(EnumSet.of(Table.PRODUCTS), "widget", 50);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_AfterChange_OnlySearchesOverThatTableReload() {
+        // Given
+        search(EnumSet.of(Table.PRODUCTS), "widget", 20);
+        search(EnumSet.of(Table.ORDERS, Table.CUSTOMERS), "john", 20);
+
+        // When
+        cache.onCustomerChanged(new CustomerChangedEvent(UUID.randomUUID(), List.of()));
+        search(EnumSet.of(Table.PRODUCTS), "widget", 20);
+        search(EnumSet.of(Table.ORDERS, Table.CUSTOMERS), "john", 20);
+        cache.onProductChanged(ProductChangedEvent.of(UUID.randomUUID()));
+        cache.onOrderChanged(OrderChangedEvent.of(UUID.randomUUID()));
+        search(EnumSet.of(Table.PRODUCTS), "widget", 20);
+        search(EnumSet.of(Table.ORDERS, Table.CUSTOMERS), "john", 20);
+
+        // Then
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void normalize_EqualAmountsShareAnEntry() {
+        // Given
+        BigDecimal whole = SearchResultCache.normalize(new BigDecimal("50"));
+        BigDecimal cents = SearchResultCache.normalize(new BigDecimal("50.00"));
+
+        // When
+        CursorPage<String> first = search(Set.of(Table.PRODUCTS), whole, 20);
+        CursorPage<String> second = search(Set.of(Table.PRODUCTS), cents, 20);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertNull(SearchResultCache.normalize(null));
+    }
+
+    private CursorPage<String> search(Set<Table> reads, Object filter, int size) {
+        return cache.get(reads, "search", List.of(filter, size), () -> {
+            loads.incrementAndGet();
+            return new CursorPage<>(List.of(String.valueOf(filter)), null, null);
+        });
+    }
+}
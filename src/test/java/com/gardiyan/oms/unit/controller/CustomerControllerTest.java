@@ -2,8 +2,10 @@ package com.gardiyan.oms.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gardiyan.oms.controller.CustomerController;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.EmailAlreadyExistsException;
@@ -123,15 +125,15 @@ class CustomerControllerTest {
 
     @Test
     void getAllCustomers_Success() throws Exception {
-        when(customerService.getAllCustomers()).thenReturn(List.of(customerDTO));
+        when(customerService.getAllCustomers(any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(customerDTO), null, null));
 
         mockMvc.perform(get("/api/customers"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(customerId.toString()))
-            .andExpect(jsonPath("$[0].firstName").value(customerDTO.getFirstName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(customerId.toString()))
+            .andExpect(jsonPath("$.items[0].firstName").value(customerDTO.getFirstName()));
 
-        verify(customerService).getAllCustomers();
+        verify(customerService).getAllCustomers(any(CursorRequest.class));
     }
 
     @Test
@@ -161,18 +163,18 @@ class CustomerControllerTest {
 
     @Test
     void searchCustomers_Success() throws Exception {
-        when(customerService.searchCustomers(anyString(), anyString(), anyString()))
-            .thenReturn(List.of(customerDTO));
+        when(customerService.searchCustomers(anyString(), anyString(), anyString(), any(CursorRequest.class)))
+            .thenReturn(new CursorPage<>(List.of(customerDTO), null, null));
 
         mockMvc.perform(get("/api/customers/search")
                 .param("name", "John")
                 .param("email", "john.doe")
                 .param("phone", "1234"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(customerId.toString()))
-            .andExpect(jsonPath("$[0].firstName").value(customerDTO.getFirstName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(customerId.toString()))
+            .andExpect(jsonPath("$.items[0].firstName").value(customerDTO.getFirstName()));
 
-        verify(customerService).searchCustomers(eq("John"), eq("john.doe"), eq("1234"));
+        verify(customerService).searchCustomers(eq("John"), eq("john.doe"), eq("1234"), any(CursorRequest.class));
     }
 } 
\ No newline at end of file
@@ -2,31 +2,48 @@ package com.gardiyan.oms.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gardiyan.oms.controller.OrderController;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
 import com.gardiyan.oms.dto.request.order.OrderItemRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
+import com.gardiyan.oms.dto.response.order.OrderBatchResult;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
 import com.gardiyan.oms.dto.response.order.OrderItemDTO;
+import com.gardiyan.oms.dto.response.order.ReservationDTO;
+import com.gardiyan.oms.exception.IdempotencyKeyMismatchException;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.OrderNotFoundException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.exception.ReservationNotFoundException;
+import com.gardiyan.oms.service.IdempotentOrderService;
 import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,6 +60,12 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private ReservationService reservationService;
+
+    @MockBean
+    private IdempotentOrderService idempotentOrderService;
+
     private UUID orderId;
     private UUID customerId;
     private UUID productId;
@@ -94,6 +117,34 @@ class OrderControllerTest {
         verify(orderService).createOrder(any(OrderCreateRequest.class));
     }
 
+    @Test
+    void createOrder_WithIdempotencyKey_UsesIdempotentPath() throws Exception {
+        when(idempotentOrderService.createOrder(eq("retry-1"), any(OrderCreateRequest.class))).thenReturn(orderDTO);
+
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(orderId.toString()));
+
+        verify(idempotentOrderService).createOrder(eq("retry-1"), any(OrderCreateRequest.class));
+        verify(orderService, never()).createOrder(any(OrderCreateRequest.class));
+    }
+
+    @Test
+    void createOrder_IdempotencyKeyReusedWithDifferentRequest_ReturnsUnprocessableEntity() throws Exception {
+        when(idempotentOrderService.createOrder(eq("retry-1"), any(OrderCreateRequest.class)))
+            .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request"));
+
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.message").value("Idempotency-Key was already used with a different request"));
+    }
+
     @Test
     void createOrder_CustomerNotFound() throws Exception {
         when(orderService.createOrder(any(OrderCreateRequest.class)))
@@ -148,6 +199,17 @@ class OrderControllerTest {
         verify(orderService).getOrderById(orderId);
     }
 
+    @Test
+    void getOrderById_MatchingETag_SkipsOrderLoad() throws Exception {
+        when(orderService.getOrderVersion(orderId)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/orders/{id}", orderId).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        verify(orderService, never()).getOrderById(any());
+    }
+
     @Test
     void getOrderById_NotFound() throws Exception {
         when(orderService.getOrderById(orderId))
@@ -162,33 +224,50 @@ class OrderControllerTest {
 
     @Test
     void getAllOrders_Success() throws Exception {
-        when(orderService.getAllOrders()).thenReturn(List.of(orderDTO));
+        when(orderService.getAllOrders(any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(orderDTO), null, null));
 
         mockMvc.perform(get("/api/orders"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(orderId.toString()))
-            .andExpect(jsonPath("$[0].customerId").value(customerId.toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(orderId.toString()))
+            .andExpect(jsonPath("$.items[0].customerId").value(customerId.toString()));
 
-        verify(orderService).getAllOrders();
+        verify(orderService).getAllOrders(any(CursorRequest.class));
+    }
+
+    @Test
+    void getAllOrders_WithCursor_PassesPageAndReturnsNextCursor() throws Exception {
+        when(orderService.getAllOrders(any(CursorRequest.class)))
+            .thenReturn(new CursorPage<>(List.of(orderDTO), "next-token", 42L));
+
+        mockMvc.perform(get("/api/orders")
+                .param("cursor", "page-token")
+                .param("size", "1")
+                .param("count", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nextCursor").value("next-token"))
+            .andExpect(jsonPath("$.totalCount").value(42));
+
+        verify(orderService).getAllOrders(argThat(page ->
+            "page-token".equals(page.getCursor()) && page.getSize() == 1 && page.isCount()));
     }
 
     @Test
     void getOrdersByCustomerId_Success() throws Exception {
-        when(orderService.getOrdersByCustomerId(any(UUID.class))).thenReturn(List.of(orderDTO));
+        when(orderService.getOrdersByCustomerId(any(UUID.class), any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(orderDTO), null, null));
 
         mockMvc.perform(get("/api/orders/customer/{customerId}", customerId))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(orderId.toString()))
-            .andExpect(jsonPath("$[0].customerId").value(customerId.toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(orderId.toString()))
+            .andExpect(jsonPath("$.items[0].customerId").value(customerId.toString()));
 
-        verify(orderService).getOrdersByCustomerId(customerId);
+        verify(orderService).getOrdersByCustomerId(eq(customerId), any(CursorRequest.class));
     }
 
     @Test
     void searchOrders_Success() throws Exception {
-        when(orderService.searchOrders(any(OrderSearchRequest.class))).thenReturn(List.of(orderDTO));
+        when(orderService.searchOrders(any(OrderSearchRequest.class), any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(orderDTO), null, null));
 
         mockMvc.perform(get("/api/orders/search")
                 .param("customerName", "John")
@@ -196,11 +275,11 @@ class OrderControllerTest {
                 .param("startDate", LocalDateTime.now().minusDays(1).toString())
                 .param("endDate", LocalDateTime.now().plusDays(1).toString()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(orderId.toString()))
-            .andExpect(jsonPath("$[0].customerId").value(customerId.toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(orderId.toString()))
+            .andExpect(jsonPath("$.items[0].customerId").value(customerId.toString()));
 
-        verify(orderService).searchOrders(any(OrderSearchRequest.class));
+        verify(orderService).searchOrders(any(OrderSearchRequest.class), any(CursorRequest.class));
     }
 
     @Test
@@ -224,4 +303,127 @@ class OrderControllerTest {
 
         verify(orderService).deleteOrder(orderId);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void reserve_Success() throws Exception {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setId(UUID.randomUUID());
+        reservationDTO.setCustomerId(customerId);
+        reservationDTO.setItems(Map.of(productId, 2));
+        reservationDTO.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        when(reservationService.reserve(any(OrderCreateRequest.class))).thenReturn(reservationDTO);
+
+        mockMvc.perform(post("/api/orders/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(reservationDTO.getId().toString()))
+            .andExpect(jsonPath("$.expiresAt").exists());
+
+        verify(reservationService).reserve(any(OrderCreateRequest.class));
+    }
+
+    @Test
+    void confirmReservation_Success() throws Exception {
+        UUID reservationId = UUID.randomUUID();
+        when(reservationService.confirm(reservationId)).thenReturn(orderDTO);
+
+        mockMvc.perform(post("/api/orders/reservations/{id}/confirm", reservationId))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").value(orderId.toString()));
+
+        verify(reservationService).confirm(reservationId);
+    }
+
+    @Test
+    void releaseReservation_NotFound() throws Exception {
+        UUID reservationId = UUID.randomUUID();
+        doThrow(new ReservationNotFoundException("Reservation not found or expired"))
+            .when(reservationService).release(reservationId);
+
+        mockMvc.perform(delete("/api/orders/reservations/{id}", reservationId))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.message").value("Reservation not found or expired"));
+
+        verify(reservationService).release(reservationId);
+    }
+
+    @Test
+    void createOrdersBatch_StreamsResultPerLine() throws Exception {
+        when(orderService.createOrders(anyList())).thenReturn(List.of(
+            OrderBatchResult.created(orderId),
+            OrderBatchResult.failed("Customer not found")));
+
+        OrderItemRequest invalidItem = new OrderItemRequest();
+        invalidItem.setProductId(productId);
+        OrderCreateRequest invalid = new OrderCreateRequest();
+        invalid.setItems(List.of(invalidItem));
+        String body = objectMapper.writeValueAsString(createRequest) + "\n"
+            + "{not json\n"
+            + objectMapper.writeValueAsString(createRequest) + "\n"
+            + "null\n"
+            + objectMapper.writeValueAsString(invalid) + "\n";
+
+        mockMvc.perform(post("/api/orders/batch")
+                .contentType("application/x-ndjson")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"line\":1,\"orderId\":\"" + orderId + "\"}")))
+            .andExpect(content().string(containsString("{\"line\":2,\"error\":\"Malformed order")))
+            .andExpect(content().string(containsString("{\"line\":3,\"error\":\"Customer not found\"}")))
+            .andExpect(content().string(containsString("{\"line\":4,\"error\":\"Malformed order")))
+            .andExpect(content().string(containsString("{\"line\":5,\"error\":\"Validation error: "
+                + "customerId: Customer id is required; items[0].quantity: Quantity must be greater than 0\"}")));
+
+        verify(orderService).createOrders(argThat(requests -> requests.size() == 2));
+    }
+
+    @Test
+    void exportOrders_StreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<OrderDTO>>getArgument(1).accept(orderDTO);
+            return 1L;
+        }).when(orderService).exportOrders(any(OrderSearchRequest.class), any());
+
+        MvcResult result = mockMvc.perform(get("/api/orders/export")
+                .param("customerId", customerId.toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":\"" + orderId + "\"")))
+            .andExpect(content().string(endsWith("}\n")));
+
+        verify(orderService).exportOrders(argThat(request -> customerId.equals(request.getCustomerId())), any());
+    }
+
+    @Test
+    void exportOrders_StreamsCsvRowPerItem() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<OrderDTO>>getArgument(1).accept(orderDTO);
+            return 1L;
+        }).when(orderService).exportOrders(any(OrderSearchRequest.class), any());
+
+        MvcResult result = mockMvc.perform(get("/api/orders/export").param("format", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.csv\""))
+            .andExpect(content().string(startsWith("order_id,customer_id,total_amount")))
+            .andExpect(content().string(containsString(orderId + "," + customerId + ",200,")));
+    }
+
+    @Test
+    void exportOrders_UnknownFormat_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("format", "xml"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unsupported export format: xml"));
+
+        verify(orderService, never()).exportOrders(any(), any());
+    }
+}
@@ -2,9 +2,15 @@ package com.gardiyan.oms.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gardiyan.oms.controller.ProductController;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
+import com.gardiyan.oms.exception.ConflictException;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
 import com.gardiyan.oms.service.ProductService;
@@ -13,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -96,6 +103,34 @@ class ProductControllerTest {
         verify(productService).getProductById(productId);
     }
 
+    @Test
+    void getProductById_MatchingETag_ReturnsNotModified() throws Exception {
+        productDTO.setVersion(3L);
+        when(productService.getProductById(any(UUID.class))).thenReturn(productDTO);
+
+        mockMvc.perform(get("/api/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, "\"3-10\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"3-10\""))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void getProductsInStock_UnchangedPage_ReturnsNotModified() throws Exception {
+        when(productService.getProductsInStock(any(CursorRequest.class)))
+            .thenReturn(new CursorPage<>(List.of(productDTO), null, null));
+
+        String etag = mockMvc.perform(get("/api/products/in-stock"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products/in-stock").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        productDTO.setStockQuantity(9);
+        mockMvc.perform(get("/api/products/in-stock").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     void getProductById_NotFound() throws Exception {
         when(productService.getProductById(productId))
@@ -110,15 +145,15 @@ class ProductControllerTest {
 
     @Test
     void getAllProducts_Success() throws Exception {
-        when(productService.getAllProducts()).thenReturn(List.of(productDTO));
+        when(productService.getAllProducts(any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(productDTO), null, null));
 
         mockMvc.perform(get("/api/products"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()))
-            .andExpect(jsonPath("$[0].name").value(productDTO.getName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()))
+            .andExpect(jsonPath("$.items[0].name").value(productDTO.getName()));
 
-        verify(productService).getAllProducts();
+        verify(productService).getAllProducts(any(CursorRequest.class));
     }
 
     @Test
@@ -172,22 +207,47 @@ class ProductControllerTest {
         verify(productService).updateStock(eq(productId), eq(-15));
     }
 
+    @Test
+    void enableStockSharding_Success() throws Exception {
+        productDTO.setStockShards(8);
+        when(productService.enableStockSharding(productId, 8)).thenReturn(productDTO);
+
+        mockMvc.perform(put("/api/products/{id}/stock-shards", productId)
+                .param("count", "8"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stockShards").value(8));
+
+        verify(productService).enableStockSharding(productId, 8);
+    }
+
+    @Test
+    void enableStockSharding_MemoryInventory_Conflict() throws Exception {
+        when(productService.enableStockSharding(productId, 8))
+            .thenThrow(new ConflictException("Stock sharding requires oms.inventory.mode=database"));
+
+        mockMvc.perform(put("/api/products/{id}/stock-shards", productId)
+                .param("count", "8"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("Stock sharding requires oms.inventory.mode=database"));
+    }
+
     @Test
     void getProductsInStock_Success() throws Exception {
-        when(productService.getProductsInStock()).thenReturn(List.of(productDTO));
+        when(productService.getProductsInStock(any(CursorRequest.class))).thenReturn(new CursorPage<>(List.of(productDTO), null, null));
 
         mockMvc.perform(get("/api/products/in-stock"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()));
 
-        verify(productService).getProductsInStock();
+        verify(productService).getProductsInStock(any(CursorRequest.class));
     }
 
     @Test
     void searchProducts_Success() throws Exception {
-        when(productService.searchProducts(anyString(), any(), any(), anyInt()))
-            .thenReturn(List.of(productDTO));
+        when(productService.searchProducts(isNull(), anyString(), any(), any(), anyInt(), eq(false),
+                any(CursorRequest.class)))
+            .thenReturn(new ProductSearchPage(new CursorPage<>(List.of(productDTO), null, null), null));
 
         mockMvc.perform(get("/api/products/search")
                 .param("name", "Test")
@@ -195,13 +255,49 @@ class ProductControllerTest {
                 .param("maxPrice", "150")
                 .param("minStock", "5"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].id").value(productId.toString()))
-            .andExpect(jsonPath("$[0].name").value(productDTO.getName()));
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].id").value(productId.toString()))
+            .andExpect(jsonPath("$.items[0].name").value(productDTO.getName()));
 
-        verify(productService).searchProducts(eq("Test"), 
+        verify(productService).searchProducts(isNull(), eq("Test"), 
             eq(BigDecimal.valueOf(50)), 
             eq(BigDecimal.valueOf(150)), 
-            eq(5));
+            eq(5),
+            eq(false),
+            any(CursorRequest.class));
+    }
+
+    @Test
+    void searchProducts_WithFacets_ReturnsCounts() throws Exception {
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        facets.setPriceBands(List.of(new ProductFacetsDTO.PriceBand(null, BigDecimal.valueOf(50), 1),
+            new ProductFacetsDTO.PriceBand(BigDecimal.valueOf(50), null, 0)));
+        facets.setPlentyStock(1);
+        when(productService.searchProducts(isNull(), isNull(), isNull(), isNull(), isNull(), eq(true),
+                any(CursorRequest.class)))
+            .thenReturn(new ProductSearchPage(new CursorPage<>(List.of(productDTO), null, null), facets));
+
+        mockMvc.perform(get("/api/products/search")
+                .param("facets", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.facets.priceBands", hasSize(2)))
+            .andExpect(jsonPath("$.facets.priceBands[0].minPrice").doesNotExist())
+            .andExpect(jsonPath("$.facets.priceBands[0].maxPrice").value(50))
+            .andExpect(jsonPath("$.facets.priceBands[0].count").value(1))
+            .andExpect(jsonPath("$.facets.plentyStock").value(1));
+    }
+
+    @Test
+    void suggestProducts_Success() throws Exception {
+        when(productService.suggestProducts("tes", 10))
+            .thenReturn(List.of(new ProductSuggestionDTO(productId, "Test Product")));
+
+        mockMvc.perform(get("/api/products/suggest")
+                .param("prefix", "tes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(productId.toString()))
+            .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.gardiyan.oms.unit.inventory;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.inventory.InMemoryStockLedger;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductStockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryStockLedgerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InMemoryStockLedger ledger;
+    private UUID firstProductId;
+    private UUID secondProductId;
+
+    @BeforeEach
+    void setUp() {
+        firstProductId = UUID.randomUUID();
+        secondProductId = UUID.randomUUID();
+        ledger = new InMemoryStockLedger(productRepository, new TransactionTemplate(transactionManager),
+            eventPublisher);
+        ledger.track(firstProductId, 10);
+        ledger.track(secondProductId, 1);
+    }
+
+    @Test
+    void reserve_AllLinesAvailable_DecrementsCounters() {
+        // When
+        List<UUID> rejected = ledger.reserve(Map.of(firstProductId, 4, secondProductId, 1));
+
+        // Then
+        assertTrue(rejected.isEmpty());
+        assertEquals(6, ledger.available(firstProductId, 0));
+        assertEquals(0, ledger.available(secondProductId, 0));
+    }
+
+    @Test
+    void reserve_OneLineShort_ReservesNothing() {
+        // When
+        List<UUID> rejected = ledger.reserve(Map.of(firstProductId, 4, secondProductId, 2));
+
+        // Then
+        assertEquals(List.of(secondProductId), rejected);
+        assertEquals(10, ledger.available(firstProductId, 0));
+        assertEquals(1, ledger.available(secondProductId, 0));
+    }
+
+    @Test
+    void reserve_UnknownProduct_LoadsStockFromRepository() {
+        // Given
+        UUID unknownId = UUID.randomUUID();
+        ProductStockLevel level = mock(ProductStockLevel.class);
+        when(level.getStockQuantity()).thenReturn(3);
+        when(productRepository.findStockLevelById(unknownId)).thenReturn(Optional.of(level));
+
+        // When
+        List<UUID> rejected = ledger.reserve(Map.of(unknownId, 2));
+
+        // Then
+        assertTrue(rejected.isEmpty());
+        assertEquals(1, ledger.available(unknownId, 0));
+    }
+
+    @Test
+    void reserve_ConcurrentCallers_NeverOversell() throws Exception {
+        // Given
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if (ledger.reserve(Map.of(firstProductId, 1)).isEmpty()) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(10, succeeded.get());
+        assertEquals(0, ledger.available(firstProductId, 0));
+    }
+
+    @Test
+    void track_KeepsUnflushedDeltasOnTopOfStoredStock() {
+        // Given
+        ledger.reserve(Map.of(firstProductId, 4));
+        ProductStockLevel level = mock(ProductStockLevel.class);
+        when(level.getStockQuantity()).thenReturn(20);
+        when(productRepository.findStockLevelById(firstProductId)).thenReturn(Optional.of(level));
+
+        // When
+        ledger.track(firstProductId, 20);
+        ledger.flush();
+
+        // Then
+        assertEquals(16, ledger.available(firstProductId, 0));
+        verify(productRepository).incrementStock(Map.of(firstProductId, -4));
+    }
+
+    @Test
+    void flush_WritesNetDeltaPerProduct() {
+        // Given
+        ledger.reserve(Map.of(firstProductId, 4));
+        ledger.adjust(firstProductId, 1);
+        ledger.release(Map.of(secondProductId, 2));
+
+        // When
+        ledger.flush();
+
+        // Then
+        verify(productRepository).incrementStock(Map.of(firstProductId, -3, secondProductId, 2));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(Set.of(firstProductId, secondProductId)));
+    }
+}
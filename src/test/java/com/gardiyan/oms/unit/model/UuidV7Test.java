@@ -0,0 +1,69 @@
+package com.gardiyan.oms.unit.model;
+
+import com.gardiyan.oms.model.id.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_SetsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(UuidV7.timestamp(uuid) >= before);
+        assertTrue(UuidV7.timestamp(uuid) <= after + 1);
+    }
+
+    @Test
+    void next_StrictlyIncreasingWithinThread() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7.next();
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                "ids must sort in generation order");
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_UniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Set<UUID> local = new HashSet<>();
+                    for (int i = 0; i < perThread; i++) {
+                        local.add(UuidV7.next());
+                    }
+                    seen.addAll(local);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, seen.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.gardiyan.oms.unit.search;
+
+import com.gardiyan.oms.event.CustomerChangedEvent;
+import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.CustomerSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSearchIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerSearchIndex index;
+    private CustomerView john;
+    private CustomerView jane;
+
+    @BeforeEach
+    void setUp() {
+        john = new CustomerView(UUID.randomUUID(), "John", "Doe", "john.doe@example.com", "+90 555 123 4567",
+            LocalDateTime.now(), 0);
+        jane = new CustomerView(UUID.randomUUID(), "Jane", "Doe-Smith", "jane@example.com", "(0212) 444-0000",
+            LocalDateTime.now(), 0);
+        index = new CustomerSearchIndex(customerRepository, new TransactionTemplate(transactionManager), 100);
+        when(customerRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100)))
+            .thenReturn(List.of(john, jane));
+        index.load();
+    }
+
+    @Test
+    void search_NameWordPrefixes_AllMustMatch() {
+        // When & Then
+        assertTrue(index.isReady());
+        assertEquals(Set.of(john, jane), ids(index.search("do", null, null)));
+        assertEquals(Set.of(jane), ids(index.search("ja smi", null, null)));
+        assertEquals(Set.of(), ids(index.search("john smith", null, null)));
+    }
+
+    @Test
+    void search_PhoneMatchedBySuffixOfDigits() {
+        // When & Then
+        assertEquals(Set.of(john), ids(index.search(null, null, "123-4567")));
+        assertEquals(Set.of(jane), ids(index.search(null, null, "0212 444 0000")));
+        assertEquals(Set.of(), ids(index.search(null, null, "555")));
+    }
+
+    @Test
+    void search_EmailNormalizedAndCombinedWithName() {
+        // When & Then
+        assertEquals(Set.of(john), ids(index.search("john", " John.Doe@Example.com", null)));
+        assertEquals(Set.of(), ids(index.search("jane", "john.doe@example.com", null)));
+    }
+
+    @Test
+    void search_NothingToMatchOn_LeftToDatabase() {
+        // When & Then
+        assertTrue(index.search(null, null, null).isEmpty());
+        assertTrue(index.search(" ", "", "-").isEmpty());
+    }
+
+    @Test
+    void onCustomerChanged_UpdatesAndRemovesEntries() {
+        // Given
+        CustomerView renamed = new CustomerView(john.id(), "Johnny", "Walker", "johnny@example.com", "+1 555 0100",
+            john.createdAt(), 1);
+        when(customerRepository.findViewById(john.id())).thenReturn(Optional.of(renamed));
+        when(customerRepository.findViewById(jane.id())).thenReturn(Optional.empty());
+
+        // When
+        index.onCustomerChanged(new CustomerChangedEvent(john.id(), List.of()));
+        index.onCustomerChanged(new CustomerChangedEvent(jane.id(), List.of()));
+
+        // Then
+        assertEquals(Set.of(), ids(index.search("doe", null, null)));
+        assertEquals(Set.of(renamed), ids(index.search("walk", null, null)));
+        assertEquals(Set.of(), ids(index.search(null, "john.doe@example.com", null)));
+        assertEquals(Set.of(renamed), ids(index.search(null, null, "0100")));
+    }
+
+    @Test
+    void load_DeleteCommittedDuringLoad_AppliedAfterIt() {
+        // Given: john is deleted after the load has read him but before it finishes
+        CustomerSearchIndex loading = new CustomerSearchIndex(customerRepository, new TransactionTemplate(transactionManager), 100);
+        when(customerRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100))).thenAnswer(invocation -> {
+            loading.onCustomerChanged(new CustomerChangedEvent(john.id(), List.of()));
+            return List.of(john, jane);
+        });
+        when(customerRepository.findViewById(john.id())).thenReturn(Optional.empty());
+
+        // When
+        loading.load();
+
+        // Then
+        assertTrue(loading.isReady());
+        assertEquals(Set.of(jane), ids(loading.search("do", null, null)));
+        assertEquals(Set.of(), ids(loading.search(null, "john.doe@example.com", null)));
+    }
+
+    private static Set<CustomerView> ids(Optional<Collection<CustomerView>> matches) {
+        return Set.copyOf(matches.orElseThrow());
+    }
+}
@@ -0,0 +1,128 @@
+package com.gardiyan.oms.unit.search;
+
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.ProductFacets;
+import com.gardiyan.oms.search.ProductFilterIndex;
+import com.gardiyan.oms.search.ProductFilterIndex.Entry;
+import com.gardiyan.oms.search.ProductFilterIndex.Matches;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFilterIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductFilterIndex index;
+    private ProductView cheap;
+    private ProductView tenner;
+    private ProductView mid;
+    private ProductView pricey;
+
+    @BeforeEach
+    void setUp() {
+        cheap = view("9.99", 0, 1);
+        tenner = view("10.00", 3, 2);
+        mid = view("25.50", 12, 3);
+        pricey = view("50.00", 7, 5);
+        // Price buckets split at 10 and 50, stock bands at 1, 5 and 10
+        index = new ProductFilterIndex(productRepository, new ProductFacets(List.of(BigDecimal.valueOf(50)), 10),
+            new TransactionTemplate(transactionManager), List.of(BigDecimal.TEN), List.of(5), 100);
+        when(productRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100)))
+            .thenReturn(List.of(cheap, tenner, mid, pricey));
+        index.load();
+    }
+
+    @Test
+    void match_RangesCombineWholeBucketsAndCheckedEdges() {
+        // When & Then
+        assertTrue(index.isReady());
+        assertEquals(4, index.match(null, null, null).count());
+        assertEquals(2, index.match(new BigDecimal("10.00"), new BigDecimal("49.99"), null).count());
+        assertEquals(3, index.match(new BigDecimal("9.99"), new BigDecimal("25.50"), null).count());
+        assertEquals(3, index.match(null, null, 1).count());
+        assertEquals(2, index.match(null, null, 6).count());
+        assertEquals(1, index.match(BigDecimal.TEN, new BigDecimal("30"), 6).count());
+        assertEquals(0, index.match(new BigDecimal("30"), BigDecimal.TEN, null).count());
+    }
+
+    @Test
+    void list_PagesInKeyOrderWithLateProductsMergedIn() {
+        // Given: committed after pricey, but created before it
+        ProductView late = view("20.00", 2, 4);
+        when(productRepository.findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1))).thenReturn(List.of(late));
+        index.onProductChanged(ProductChangedEvent.catalog(late.id()));
+
+        // When
+        Matches all = index.match(null, null, null);
+
+        // Then
+        assertEquals(entries(cheap, tenner, mid, late, pricey), index.list(all, null, null, 10));
+        assertEquals(entries(late, pricey), index.list(all, mid.createdAt(), mid.id(), 2));
+        assertEquals(entries(pricey), index.list(all, late.createdAt(), late.id(), 10));
+        assertEquals(entries(tenner, mid), index.list(index.match(null, null, 1), null, null, 2));
+    }
+
+    @Test
+    void onProductChanged_StockMovesBandsAndDeletesDrop() {
+        // Given
+        ProductView soldOut = new ProductView(mid.id(), mid.name(), null, mid.price(), 0, 0, mid.createdAt(), 0);
+        when(productRepository.findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1)))
+            .thenReturn(List.of(soldOut))
+            .thenReturn(List.of());
+
+        // When
+        index.onProductChanged(ProductChangedEvent.of(mid.id()));
+        index.onProductChanged(ProductChangedEvent.catalog(cheap.id()));
+
+        // Then
+        assertEquals(entries(tenner, pricey), index.list(index.match(null, null, 1), null, null, 10));
+        assertEquals(entries(tenner, mid, pricey), index.list(index.match(null, null, null), null, null, 10));
+    }
+
+    @Test
+    void facets_CountsEveryBand() {
+        // When
+        ProductFacetsDTO facets = index.facets(index.match(null, null, null));
+
+        // Then
+        assertEquals(List.of(
+            new ProductFacetsDTO.PriceBand(null, BigDecimal.valueOf(50), 3),
+            new ProductFacetsDTO.PriceBand(BigDecimal.valueOf(50), null, 1)), facets.getPriceBands());
+        assertEquals(1, facets.getOutOfStock());
+        assertEquals(2, facets.getLowStock());
+        assertEquals(1, facets.getPlentyStock());
+    }
+
+    private static ProductView view(String price, int stock, int minutes) {
+        return new ProductView(UUID.randomUUID(), "Product " + price, null, new BigDecimal(price), stock, 0,
+            START.plusMinutes(minutes), 0);
+    }
+
+    private static List<Entry> entries(ProductView... views) {
+        return Arrays.stream(views).map(view -> new Entry(view.id(), view.createdAt())).toList();
+    }
+}
@@ -0,0 +1,150 @@
+package com.gardiyan.oms.unit.search;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import com.gardiyan.oms.search.ProductSearchIndex.Hit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSearchIndex index;
+    private ProductView phone;
+    private ProductView phoneCase;
+    private ProductView charger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        phone = view("Smart Phone", "Flagship handset", 900);
+        phoneCase = view("Leather Case", "Fits every smart phone", 30);
+        charger = view("Wall Charger", "Fast charging brick", 25);
+        index = new ProductSearchIndex(productRepository, new TransactionTemplate(transactionManager), "", 100);
+        when(productRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100)))
+            .thenReturn(List.of(phone, phoneCase, charger));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void search_NameMatchesRankAboveDescriptionMatches() {
+        // When
+        List<Hit> hits = index.search("phone", null, null, null, 10);
+
+        // Then
+        assertTrue(index.isReady());
+        assertEquals(List.of(phone.id(), phoneCase.id()), hits.stream().map(Hit::id).toList());
+    }
+
+    @Test
+    void search_PrefixOfEveryTermMustMatch() {
+        // When
+        List<Hit> prefix = index.search("charg", null, null, null, 10);
+        List<Hit> allTerms = index.search("smart brick", null, null, null, 10);
+
+        // Then
+        assertEquals(List.of(charger.id()), prefix.stream().map(Hit::id).toList());
+        assertTrue(allTerms.isEmpty());
+    }
+
+    @Test
+    void search_PriceRangeFiltersMatches() {
+        // When
+        List<Hit> hits = index.search("phone", null, BigDecimal.valueOf(100), null, 10);
+
+        // Then
+        assertEquals(List.of(phoneCase.id()), hits.stream().map(Hit::id).toList());
+        assertEquals(1, index.count("phone", null, BigDecimal.valueOf(100)));
+    }
+
+    @Test
+    void search_ResumesAfterCursor() {
+        // Given
+        Hit first = index.search("phone", null, null, null, 1).get(0);
+
+        // When
+        List<Hit> rest = index.search("phone", null, null, Hit.fromCursor(first.cursor()), 10);
+
+        // Then
+        assertEquals(phone.id(), first.id());
+        assertEquals(List.of(phoneCase.id()), rest.stream().map(Hit::id).toList());
+    }
+
+    @Test
+    void onProductChanged_CatalogChange_ReindexesAndDeletes() throws IOException {
+        // Given
+        ProductView renamed = new ProductView(charger.id(), "Phone Charger", charger.description(), charger.price(),
+            0, 0, charger.createdAt(), 1);
+        when(productRepository.findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1)))
+            .thenReturn(List.of(renamed), List.of());
+
+        // When
+        index.onProductChanged(ProductChangedEvent.catalog(charger.id()));
+        index.onProductChanged(ProductChangedEvent.catalog(phoneCase.id()));
+        index.refresh();
+
+        // Then
+        assertEquals(Set.of(phone.id(), charger.id()),
+            Set.copyOf(index.search("phone", null, null, null, 10).stream().map(Hit::id).toList()));
+    }
+
+    @Test
+    void rebuild_ChangeCommittedDuringRebuild_ReadAgainAfterIt() throws IOException {
+        // Given: the charger is deleted after the rebuild read the batch holding it
+        when(productRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100))).thenAnswer(invocation -> {
+            index.onProductChanged(ProductChangedEvent.catalog(charger.id()));
+            return List.of(phone, phoneCase, charger);
+        });
+        when(productRepository.findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1))).thenReturn(List.of());
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertTrue(index.search("charg", null, null, null, 10).isEmpty());
+        assertEquals(2, index.search("phone", null, null, null, 10).size());
+    }
+
+    @Test
+    void onProductChanged_StockMovement_Ignored() {
+        // When
+        index.onProductChanged(new ProductChangedEvent(Set.of(phone.id())));
+
+        // Then
+        verify(productRepository, times(1)).findViews(any(), any(), anyInt());
+    }
+
+    private static ProductView view(String name, String description, int price) {
+        return new ProductView(UUID.randomUUID(), name, description, BigDecimal.valueOf(price), 10, 0,
+            LocalDateTime.now(), 0);
+    }
+}
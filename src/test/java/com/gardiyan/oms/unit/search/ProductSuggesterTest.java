@@ -0,0 +1,135 @@
+package com.gardiyan.oms.unit.search;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.event.ProductsSoldEvent;
+import com.gardiyan.oms.repository.OrderRepository;
+import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductSales;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.ProductSuggester;
+import com.gardiyan.oms.search.ProductSuggester.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSuggester suggester;
+    private ProductView redShoe;
+    private ProductView redShirt;
+    private ProductView blueShoe;
+    private ProductView redwoodTable;
+
+    @BeforeEach
+    void setUp() {
+        redShoe = view("Red Shoe");
+        redShirt = view("Red  Shirt");
+        blueShoe = view("Blue Shoe");
+        redwoodTable = view("Redwood Table");
+        // A depth of 4 makes "red s" and longer prefixes take the filtered path
+        suggester = new ProductSuggester(productRepository, orderRepository,
+            new TransactionTemplate(transactionManager), 4, 100, Duration.ofDays(30), Duration.ofDays(7));
+        when(orderRepository.findUnitsSoldSince(any()))
+            .thenReturn(List.of(sales(redShoe, 5), sales(redShirt, 20), sales(redwoodTable, 1)));
+        when(productRepository.findViews(isNull(), eq(KeysetSpecification.ORDER), eq(100)))
+            .thenReturn(List.of(redShoe, redShirt, blueShoe, redwoodTable));
+        suggester.load();
+    }
+
+    @Test
+    void suggest_PrefixRankedByUnitsSold() {
+        // When & Then
+        assertTrue(suggester.isReady());
+        assertEquals(List.of("Red  Shirt", "Red Shoe", "Redwood Table"), names(suggester.suggest("red", 10)));
+        assertEquals(List.of("Red  Shirt", "Red Shoe"), names(suggester.suggest("Red ", 10)));
+        assertEquals(List.of("Red  Shirt"), names(suggester.suggest("red", 1)));
+        assertEquals(List.of(), names(suggester.suggest("green", 10)));
+        assertEquals(List.of(), names(suggester.suggest("  ", 10)));
+    }
+
+    @Test
+    void suggest_PrefixLongerThanTrieDepth_FiltersDeepestNode() {
+        // When & Then
+        assertEquals(List.of("Red  Shirt", "Red Shoe"), names(suggester.suggest("RED  S", 10)));
+        assertEquals(List.of("Red Shoe"), names(suggester.suggest("red sho", 10)));
+        assertEquals(List.of("Redwood Table"), names(suggester.suggest("redwood", 10)));
+    }
+
+    @Test
+    void onProductsSold_Reranks() {
+        // When
+        suggester.onProductsSold(new ProductsSoldEvent(Map.of(redShoe.id(), 100)));
+
+        // Then
+        assertEquals(List.of("Red Shoe", "Red  Shirt", "Redwood Table"), names(suggester.suggest("re", 10)));
+        assertEquals(List.of("Red Shoe", "Red  Shirt"), names(suggester.suggest("red sh", 10)));
+    }
+
+    @Test
+    void onProductChanged_RenamesKeepSalesAndDeletesDrop() {
+        // Given
+        ProductView renamed = new ProductView(redShoe.id(), "Blue Boot", null, BigDecimal.TEN, 1, 0,
+            redShoe.createdAt(), 1);
+        when(productRepository.findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1)))
+            .thenReturn(List.of(renamed))
+            .thenReturn(List.of());
+
+        // When
+        suggester.onProductChanged(ProductChangedEvent.catalog(redShoe.id()));
+        suggester.onProductChanged(ProductChangedEvent.catalog(redwoodTable.id()));
+        suggester.onProductChanged(ProductChangedEvent.of(redShirt.id()));
+
+        // Then
+        assertEquals(List.of("Red  Shirt"), names(suggester.suggest("red", 10)));
+        assertEquals(List.of("Blue Boot", "Blue Shoe"), names(suggester.suggest("blue", 10)));
+        verify(productRepository, times(2)).findViews(notNull(), eq(KeysetSpecification.ORDER), eq(1));
+    }
+
+    private static ProductView view(String name) {
+        return new ProductView(UUID.randomUUID(), name, null, BigDecimal.TEN, 1, 0, LocalDateTime.now(), 0);
+    }
+
+    private static ProductSales sales(ProductView product, long units) {
+        return new ProductSales() {
+            @Override
+            public UUID getProductId() {
+                return product.id();
+            }
+
+            @Override
+            public Long getUnitsSold() {
+                return units;
+            }
+        };
+    }
+
+    private static List<String> names(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::name).toList();
+    }
+}
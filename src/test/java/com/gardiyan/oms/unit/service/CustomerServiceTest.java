@@ -1,27 +1,39 @@
 package com.gardiyan.oms.unit.service;
 
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerCreateRequest;
 import com.gardiyan.oms.dto.request.customer.CustomerUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.customer.CustomerDTO;
+import com.gardiyan.oms.event.CustomerChangedEvent;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.EmailAlreadyExistsException;
 import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.repository.CustomerRepository;
+import com.gardiyan.oms.repository.projection.CustomerView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.CustomerSearchIndex;
 import com.gardiyan.oms.service.impl.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,10 +42,22 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
-    @InjectMocks
+    @Mock
+    private CustomerCache customerCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<CustomerSearchIndex> searchIndex;
+
+    @Mock
+    private ObjectProvider<SearchResultCache> searchResults;
+
     private CustomerServiceImpl customerService;
 
     private Customer customer;
+    private CustomerView customerView;
     private CustomerDTO customerDTO;
     private UUID customerId;
     private CustomerCreateRequest createRequest;
@@ -41,6 +65,9 @@ class CustomerServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Built by hand: @InjectMocks matches constructor arguments by raw type and cannot tell the providers apart
+        customerService = new CustomerServiceImpl(customerRepository, customerCache, eventPublisher, searchIndex,
+            searchResults);
         customerId = UUID.randomUUID();
         
         customer = new Customer();
@@ -50,6 +77,9 @@ class CustomerServiceTest {
         customer.setEmail("john.doe@example.com");
         customer.setPhone("+90 555 123 4567");
 
+        customerView = new CustomerView(customerId, "John", "Doe", "john.doe@example.com", "+90 555 123 4567",
+            LocalDateTime.now(), 0);
+
         customerDTO = new CustomerDTO();
         customerDTO.setId(customerId);
         customerDTO.setFirstName("John");
@@ -73,7 +103,7 @@ class CustomerServiceTest {
     @Test
     void createCustomer_Success() {
         // Given
-        when(customerRepository.existsByEmail(anyString())).thenReturn(false);
+        when(customerRepository.existsByNormalizedEmail(anyString())).thenReturn(false);
         when(customerRepository.save(any(Customer.class))).thenReturn(customer);
 
         // When
@@ -82,26 +112,42 @@ class CustomerServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(customerDTO.getEmail(), result.getEmail());
-        verify(customerRepository).existsByEmail(createRequest.getEmail());
+        verify(customerRepository).existsByNormalizedEmail(createRequest.getEmail());
         verify(customerRepository).save(any(Customer.class));
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(customerId, List.of(createRequest.getEmail())));
+    }
+
+    @Test
+    void createCustomer_NormalizesEmail() {
+        // Given
+        createRequest.setEmail("  John.Doe@Example.com ");
+        when(customerRepository.existsByNormalizedEmail(anyString())).thenReturn(false);
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        CustomerDTO result = customerService.createCustomer(createRequest);
+
+        // Then
+        assertEquals("john.doe@example.com", result.getEmail());
+        verify(customerRepository).existsByNormalizedEmail("john.doe@example.com");
     }
 
     @Test
     void createCustomer_EmailExists_ThrowsException() {
         // Given
-        when(customerRepository.existsByEmail(anyString())).thenReturn(true);
+        when(customerRepository.existsByNormalizedEmail(anyString())).thenReturn(true);
 
         // When & Then
         assertThrows(EmailAlreadyExistsException.class,
             () -> customerService.createCustomer(createRequest));
-        verify(customerRepository).existsByEmail(createRequest.getEmail());
+        verify(customerRepository).existsByNormalizedEmail(createRequest.getEmail());
         verify(customerRepository, never()).save(any(Customer.class));
     }
 
     @Test
     void getCustomerById_Success() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(customerCache.get(customerId)).thenReturn(Optional.of(customerView));
 
         // When
         CustomerDTO result = customerService.getCustomerById(customerId);
@@ -109,40 +155,40 @@ class CustomerServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(customerId, result.getId());
-        verify(customerRepository).findById(customerId);
+        assertEquals("john.doe@example.com", result.getEmail());
+        verify(customerCache).get(customerId);
+        verify(customerRepository, never()).findById(any());
     }
 
     @Test
     void getCustomerById_NotFound_ThrowsException() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        when(customerCache.get(customerId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(CustomerNotFoundException.class,
             () -> customerService.getCustomerById(customerId));
-        verify(customerRepository).findById(customerId);
+        verify(customerCache).get(customerId);
     }
 
     @Test
     void getAllCustomers_Success() {
         // Given
-        List<Customer> customers = List.of(customer);
-        when(customerRepository.findAll()).thenReturn(customers);
+        when(customerRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(customerView));
 
         // When
-        List<CustomerDTO> result = customerService.getAllCustomers();
+        CursorPage<CustomerDTO> result = customerService.getAllCustomers(CursorRequest.first(10));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(customerRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void updateCustomer_Success() {
         // Given
         when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+        when(customerRepository.saveAndFlush(any(Customer.class))).thenReturn(customer);
 
         // When
         CustomerDTO result = customerService.updateCustomer(customerId, updateRequest);
@@ -152,7 +198,9 @@ class CustomerServiceTest {
         assertEquals(updateRequest.getFirstName(), result.getFirstName());
         assertEquals(updateRequest.getLastName(), result.getLastName());
         verify(customerRepository).findById(customerId);
-        verify(customerRepository).save(any(Customer.class));
+        verify(customerRepository).saveAndFlush(any(Customer.class));
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(customerId,
+            List.of("john.doe@example.com", "john.updated@example.com")));
     }
 
     @Test
@@ -164,7 +212,7 @@ class CustomerServiceTest {
         assertThrows(CustomerNotFoundException.class,
             () -> customerService.updateCustomer(customerId, updateRequest));
         verify(customerRepository).findById(customerId);
-        verify(customerRepository, never()).save(any(Customer.class));
+        verify(customerRepository, never()).saveAndFlush(any(Customer.class));
     }
 
     @Test
@@ -179,6 +227,7 @@ class CustomerServiceTest {
         // Then
         verify(customerRepository).existsById(customerId);
         verify(customerRepository).deleteById(customerId);
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(customerId, List.of()));
     }
 
     @Test
@@ -193,18 +242,46 @@ class CustomerServiceTest {
         verify(customerRepository, never()).deleteById(any());
     }
 
+    @Test
+    void getCustomerByEmail_Success() {
+        // Given
+        when(customerCache.getByEmail("John.Doe@example.com")).thenReturn(Optional.of(customerView));
+
+        // When
+        CustomerDTO result = customerService.getCustomerByEmail("John.Doe@example.com");
+
+        // Then
+        assertEquals(customerId, result.getId());
+        verify(customerRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void searchCustomers_Success() {
         // Given
-        List<Customer> customers = List.of(customer);
-        when(customerRepository.findAll(any(Specification.class))).thenReturn(customers);
+        when(customerRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(customerView));
+
+        // When
+        CursorPage<CustomerDTO> result = customerService.searchCustomers("John", null, null, CursorRequest.first(10));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        verify(customerRepository).findViews(any(Specification.class), eq(KeysetSpecification.ORDER), eq(11));
+    }
+
+    @Test
+    void searchCustomers_IndexReady_AnsweredWithoutDatabase() {
+        // Given
+        CustomerSearchIndex index = mock(CustomerSearchIndex.class);
+        when(searchIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(true);
+        when(index.search("jo", null, "4567")).thenReturn(Optional.of(List.of(customerView)));
 
         // When
-        List<CustomerDTO> result = customerService.searchCustomers("John", null, null);
+        CursorPage<CustomerDTO> result = customerService.searchCustomers("jo", null, "4567", CursorRequest.first(10));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(customerRepository).findAll(any(Specification.class));
+        assertEquals(1, result.getItems().size());
+        assertEquals(customerId, result.getItems().get(0).getId());
+        verifyNoInteractions(customerRepository);
     }
-} 
\ No newline at end of file
+}
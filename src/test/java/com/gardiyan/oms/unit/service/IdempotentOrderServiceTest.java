@@ -0,0 +1,177 @@
+package com.gardiyan.oms.unit.service;
+
+import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
+import com.gardiyan.oms.dto.response.order.OrderDTO;
+import com.gardiyan.oms.exception.IdempotencyKeyMismatchException;
+import com.gardiyan.oms.exception.InsufficientStockException;
+import com.gardiyan.oms.model.IdempotencyRecord;
+import com.gardiyan.oms.repository.IdempotencyRecordRepository;
+import com.gardiyan.oms.service.OrderService;
+import com.gardiyan.oms.service.impl.IdempotentOrderServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentOrderServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentOrderServiceImpl idempotentOrderService;
+    private OrderCreateRequest request;
+    private OrderDTO orderDTO;
+
+    @BeforeEach
+    void setUp() {
+        idempotentOrderService = new IdempotentOrderServiceImpl(orderService, recordRepository,
+            new TransactionTemplate(transactionManager), 100, Duration.ofHours(1));
+        request = new OrderCreateRequest();
+        orderDTO = new OrderDTO();
+        orderDTO.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void createOrder_ReplayedKey_ReturnsStoredOrderWithoutCreating() {
+        // Given
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(request)).thenReturn(orderDTO);
+        when(orderService.getOrderById(orderDTO.getId())).thenReturn(orderDTO);
+
+        // When
+        OrderDTO first = idempotentOrderService.createOrder("key-1", request);
+        OrderDTO replay = idempotentOrderService.createOrder("key-1", request);
+
+        // Then
+        assertEquals(orderDTO.getId(), first.getId());
+        assertEquals(orderDTO.getId(), replay.getId());
+        verify(orderService, times(1)).createOrder(request);
+        verify(recordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void createOrder_KeyOnlyInTable_ReturnsStoredOrder() {
+        // Given: the key was stored by another instance, whose cache this one does not share
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(request)).thenReturn(orderDTO);
+        idempotentOrderService.createOrder("key-1", request);
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(recordRepository).saveAndFlush(stored.capture());
+        IdempotentOrderServiceImpl otherInstance = new IdempotentOrderServiceImpl(orderService, recordRepository,
+            new TransactionTemplate(transactionManager), 100, Duration.ofHours(1));
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(stored.getValue()));
+        when(orderService.getOrderById(orderDTO.getId())).thenReturn(orderDTO);
+
+        // When
+        OrderDTO result = otherInstance.createOrder("key-1", request);
+
+        // Then
+        assertEquals(orderDTO.getId(), result.getId());
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void createOrder_KeyStoredWithoutHash_ReturnsStoredOrder() {
+        // Given
+        when(recordRepository.findById("key-1"))
+            .thenReturn(Optional.of(new IdempotencyRecord("key-1", orderDTO.getId(), null)));
+        when(orderService.getOrderById(orderDTO.getId())).thenReturn(orderDTO);
+
+        // When
+        OrderDTO result = idempotentOrderService.createOrder("key-1", request);
+
+        // Then
+        assertEquals(orderDTO.getId(), result.getId());
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void createOrder_KeyReusedWithDifferentRequest_ThrowsException() {
+        // Given
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(request)).thenReturn(orderDTO);
+        idempotentOrderService.createOrder("key-1", request);
+        OrderCreateRequest otherRequest = new OrderCreateRequest();
+        otherRequest.setCustomerId(UUID.randomUUID());
+
+        // When & Then
+        assertThrows(IdempotencyKeyMismatchException.class,
+            () -> idempotentOrderService.createOrder("key-1", otherRequest));
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void createOrder_FailedAttempt_KeyCanBeRetried() {
+        // Given
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(request))
+            .thenThrow(new InsufficientStockException("Insufficient stock"))
+            .thenReturn(orderDTO);
+
+        // When & Then
+        assertThrows(InsufficientStockException.class,
+            () -> idempotentOrderService.createOrder("key-1", request));
+        assertEquals(orderDTO.getId(), idempotentOrderService.createOrder("key-1", request).getId());
+    }
+
+    @Test
+    void createOrder_ConcurrentSameKey_CollapsedOntoOneExecution() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrder(request)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return orderDTO;
+        });
+        lenient().when(orderService.getOrderById(orderDTO.getId())).thenReturn(orderDTO);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<OrderDTO> first = executor.submit(() -> idempotentOrderService.createOrder("key-1", request));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<OrderDTO> second = executor.submit(() -> idempotentOrderService.createOrder("key-1", request));
+            release.countDown();
+
+            // Then
+            assertEquals(orderDTO.getId(), first.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(orderDTO.getId(), second.get(5, TimeUnit.SECONDS).getId());
+            verify(orderService, times(1)).createOrder(request);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createOrder_BlankKey_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> idempotentOrderService.createOrder(" ", request));
+        verifyNoInteractions(orderService);
+    }
+}
@@ -1,14 +1,21 @@
 package com.gardiyan.oms.unit.service;
 
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.order.OrderCreateRequest;
 import com.gardiyan.oms.dto.request.order.OrderItemRequest;
 import com.gardiyan.oms.dto.request.order.OrderSearchRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.order.OrderDTO;
 import com.gardiyan.oms.dto.response.order.OrderItemDTO;
+import com.gardiyan.oms.event.ProductsSoldEvent;
 import com.gardiyan.oms.exception.CustomerNotFoundException;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.OrderNotFoundException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.cache.CustomerCache;
+import com.gardiyan.oms.cache.ProductCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.inventory.StockManager;
 import com.gardiyan.oms.model.Customer;
 import com.gardiyan.oms.model.Order;
 import com.gardiyan.oms.model.OrderItem;
@@ -16,6 +23,8 @@ import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.CustomerRepository;
 import com.gardiyan.oms.repository.OrderRepository;
 import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.service.OrderOutcome;
 import com.gardiyan.oms.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,15 +32,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,11 +61,27 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockManager stockManager;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private CustomerCache customerCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<SearchResultCache> searchResults;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
     private Customer customer;
     private Product product;
+    private ProductView productView;
     private Order order;
     private OrderDTO orderDTO;
     private UUID orderId;
@@ -77,6 +108,9 @@ class OrderServiceTest {
         product.setPrice(BigDecimal.valueOf(100));
         product.setStockQuantity(10);
 
+        productView = new ProductView(productId, "Test Product", null, BigDecimal.valueOf(100), 10, 0,
+            LocalDateTime.now(), 0);
+
         itemRequest = new OrderItemRequest();
         itemRequest.setProductId(productId);
         itemRequest.setQuantity(2);
@@ -116,8 +150,10 @@ class OrderServiceTest {
     @Test
     void createOrder_Success() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(productRepository.findByIdWithLock(productId)).thenReturn(product);
+        when(customerCache.exists(customerId)).thenReturn(true);
+        when(customerRepository.getReferenceById(customerId)).thenReturn(customer);
+        when(productCache.getCatalog(anyCollection())).thenReturn(Map.of(productId, productView));
+        when(productRepository.getReferenceById(productId)).thenReturn(product);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         // When
@@ -127,50 +163,121 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(customerId, result.getCustomerId());
         assertEquals(1, result.getItems().size());
-        verify(customerRepository).findById(customerId);
-        verify(productRepository).findByIdWithLock(productId);
+        verify(customerCache).exists(customerId);
+        verify(productCache).getCatalog(anyCollection());
+        verify(stockManager).reserve(Map.of(productId, 2));
+        verify(productRepository, never()).save(any());
         verify(orderRepository).save(any(Order.class));
+        verify(eventPublisher).publishEvent(new ProductsSoldEvent(Map.of(productId, 2)));
+    }
+
+    @Test
+    void createOrder_DuplicateProducts_MergedIntoSingleLine() {
+        // Given
+        OrderItemRequest duplicate = new OrderItemRequest();
+        duplicate.setProductId(productId);
+        duplicate.setQuantity(3);
+        createRequest.setItems(List.of(itemRequest, duplicate));
+
+        when(customerCache.exists(customerId)).thenReturn(true);
+        when(customerRepository.getReferenceById(customerId)).thenReturn(customer);
+        when(productCache.getCatalog(anyCollection())).thenReturn(Map.of(productId, productView));
+        when(productRepository.getReferenceById(productId)).thenReturn(product);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(UUID.randomUUID());
+            return saved;
+        });
+
+        // When
+        OrderDTO result = orderService.createOrder(createRequest);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(5, result.getItems().get(0).getQuantity());
+        assertEquals(BigDecimal.valueOf(500), result.getTotalAmount());
+        verify(productCache, times(1)).getCatalog(anyCollection());
+        verify(stockManager).reserve(Map.of(productId, 5));
+    }
+
+    @Test
+    void createOrder_NonPositiveQuantity_ThrowsException() {
+        // Given
+        when(customerCache.exists(customerId)).thenReturn(true);
+        itemRequest.setQuantity(0);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> orderService.createOrder(createRequest));
+        verify(productCache, never()).getCatalog(anyCollection());
+        verify(stockManager, never()).reserve(anyMap());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void placeOrders_QuantityOverflow_RejectsOnlyThatOrder() {
+        // Given
+        OrderItemRequest huge = new OrderItemRequest();
+        huge.setProductId(productId);
+        huge.setQuantity(Integer.MAX_VALUE);
+        OrderCreateRequest overflowing = new OrderCreateRequest();
+        overflowing.setCustomerId(customerId);
+        overflowing.setItems(List.of(itemRequest, huge));
+        when(customerRepository.findAllById(anyIterable())).thenReturn(List.of(customer));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product));
+
+        // When
+        List<OrderOutcome> outcomes = orderService.placeOrders(List.of(overflowing, createRequest));
+
+        // Then
+        assertFalse(outcomes.get(0).isCreated());
+        assertInstanceOf(IllegalArgumentException.class, outcomes.get(0).getFailure());
+        assertTrue(outcomes.get(1).isCreated());
+        verify(stockManager).reserve(Map.of(productId, 2));
     }
 
     @Test
     void createOrder_CustomerNotFound_ThrowsException() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        when(customerCache.exists(customerId)).thenReturn(false);
 
         // When & Then
         assertThrows(CustomerNotFoundException.class,
             () -> orderService.createOrder(createRequest));
-        verify(customerRepository).findById(customerId);
-        verify(productRepository, never()).findByIdWithLock(any());
+        verify(customerCache).exists(customerId);
+        verify(productCache, never()).getCatalog(anyCollection());
+        verify(stockManager, never()).reserve(anyMap());
         verify(orderRepository, never()).save(any());
     }
 
     @Test
     void createOrder_ProductNotFound_ThrowsException() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(productRepository.findByIdWithLock(productId)).thenReturn(null);
+        when(customerCache.exists(customerId)).thenReturn(true);
+        when(productCache.getCatalog(anyCollection())).thenReturn(Map.of());
 
         // When & Then
         assertThrows(ProductNotFoundException.class,
             () -> orderService.createOrder(createRequest));
-        verify(customerRepository).findById(customerId);
-        verify(productRepository).findByIdWithLock(productId);
+        verify(customerCache).exists(customerId);
+        verify(productCache).getCatalog(anyCollection());
         verify(orderRepository, never()).save(any());
     }
 
     @Test
     void createOrder_InsufficientStock_ThrowsException() {
         // Given
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(productRepository.findByIdWithLock(productId)).thenReturn(product);
+        when(customerCache.exists(customerId)).thenReturn(true);
+        when(productCache.getCatalog(anyCollection())).thenReturn(Map.of(productId, productView));
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+        when(stockManager.reserve(Map.of(productId, 15))).thenReturn(List.of(productId));
         itemRequest.setQuantity(15); // More than available stock
 
         // When & Then
         assertThrows(InsufficientStockException.class,
             () -> orderService.createOrder(createRequest));
-        verify(customerRepository).findById(customerId);
-        verify(productRepository).findByIdWithLock(productId);
+        verify(customerCache).exists(customerId);
+        verify(productCache).getCatalog(anyCollection());
         verify(orderRepository, never()).save(any());
     }
 
@@ -203,94 +310,104 @@ class OrderServiceTest {
     @Test
     void getAllOrders_Success() {
         // Given
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order));
+        when(orderRepository.findWithItemsByIdIn(List.of(orderId))).thenReturn(List.of(order));
 
         // When
-        List<OrderDTO> result = orderService.getAllOrders();
+        CursorPage<OrderDTO> result = orderService.getAllOrders(CursorRequest.first(10));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(orderId, result.get(0).getId());
-        verify(orderRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertEquals(orderId, result.getItems().get(0).getId());
+        assertNull(result.getNextCursor());
+        assertNull(result.getTotalCount());
+        verify(orderRepository, never()).count(any(Specification.class));
+        verify(orderRepository).findWithItemsByIdIn(List.of(orderId));
     }
 
     @Test
-    void getOrdersByCustomerId_Success() {
+    void getAllOrders_MoreRowsThanPageSize_ReturnsNextCursor() {
         // Given
-        when(customerRepository.existsById(customerId)).thenReturn(true);
-        when(orderRepository.findByCustomerId(customerId)).thenReturn(List.of(order));
+        Order newer = new Order();
+        newer.setId(UUID.randomUUID());
+        newer.setCustomer(customer);
+        newer.setOrderItems(List.of());
+        newer.setCreatedAt(order.getCreatedAt().plusSeconds(1));
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order, newer));
 
         // When
-        List<OrderDTO> result = orderService.getOrdersByCustomerId(customerId);
+        CursorPage<OrderDTO> result = orderService.getAllOrders(CursorRequest.first(1));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(orderId, result.get(0).getId());
-        assertEquals(customerId, result.get(0).getCustomerId());
-        verify(orderRepository).findByCustomerId(customerId);
-        verify(customerRepository).existsById(customerId);
+        assertEquals(1, result.getItems().size());
+        assertEquals(orderId, result.getItems().get(0).getId());
+        assertNotNull(result.getNextCursor());
     }
 
     @Test
-    void searchOrders_ByCustomerName_Success() {
+    void getAllOrders_WithCount_ReturnsTotal() {
         // Given
-        OrderSearchRequest searchRequest = new OrderSearchRequest();
-        searchRequest.setCustomerName("John");
-        when(orderRepository.findByCustomerName("John")).thenReturn(List.of(order));
+        CursorRequest page = CursorRequest.first(10);
+        page.setCount(true);
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order));
+        when(orderRepository.count(any(Specification.class))).thenReturn(7L);
 
         // When
-        List<OrderDTO> result = orderService.searchOrders(searchRequest);
+        CursorPage<OrderDTO> result = orderService.getAllOrders(page);
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(orderId, result.get(0).getId());
-        verify(orderRepository).findByCustomerName("John");
+        assertEquals(7L, result.getTotalCount());
+    }
+
+    @Test
+    void getAllOrders_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> orderService.getAllOrders(CursorRequest.after("not-a-cursor", 10)));
     }
 
     @Test
-    void searchOrders_ByDateRange_Success() {
+    void getOrdersByCustomerId_Success() {
         // Given
-        OrderSearchRequest searchRequest = new OrderSearchRequest();
-        searchRequest.setCustomerId(customerId);
-        searchRequest.setStartDate(LocalDateTime.now().minusDays(1));
-        searchRequest.setEndDate(LocalDateTime.now().plusDays(1));
+        when(customerCache.exists(customerId)).thenReturn(true);
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order));
+
+        // When
+        CursorPage<OrderDTO> result = orderService.getOrdersByCustomerId(customerId, CursorRequest.first(10));
 
-        when(orderRepository.searchOrders(
-            eq(customerId),
-            any(LocalDateTime.class),
-            any(LocalDateTime.class)
-        )).thenReturn(List.of(order));
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(orderId, result.getItems().get(0).getId());
+        assertEquals(customerId, result.getItems().get(0).getCustomerId());
+        verify(customerCache).exists(customerId);
+    }
+
+    @Test
+    void searchOrders_ByCustomerName_Success() {
+        // Given
+        OrderSearchRequest searchRequest = new OrderSearchRequest();
+        searchRequest.setCustomerName("John");
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order));
 
         // When
-        List<OrderDTO> result = orderService.searchOrders(searchRequest);
+        CursorPage<OrderDTO> result = orderService.searchOrders(searchRequest, CursorRequest.first(10));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        assertEquals(orderId, result.get(0).getId());
-        verify(orderRepository).searchOrders(
-            eq(customerId),
-            any(LocalDateTime.class),
-            any(LocalDateTime.class)
-        );
+        assertEquals(1, result.getItems().size());
+        assertEquals(orderId, result.getItems().get(0).getId());
     }
 
     @Test
     void deleteOrder_Success() {
         // Given
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        doNothing().when(orderRepository).deleteById(orderId);
 
         // When
         orderService.deleteOrder(orderId);
 
         // Then
         verify(orderRepository).findById(orderId);
-        verify(orderRepository).deleteById(orderId);
-        verify(productRepository).save(any(Product.class));
+        verify(orderRepository).delete(order);
+        verify(stockManager).release(Map.of(productId, 2));
     }
 
     @Test
@@ -302,7 +419,7 @@ class OrderServiceTest {
         assertThrows(OrderNotFoundException.class,
             () -> orderService.deleteOrder(orderId));
         verify(orderRepository).findById(orderId);
-        verify(orderRepository, never()).deleteById(any());
-        verify(productRepository, never()).save(any());
+        verify(orderRepository, never()).delete(any(Order.class));
+        verify(stockManager, never()).release(anyMap());
     }
 } 
\ No newline at end of file
@@ -1,28 +1,48 @@
 package com.gardiyan.oms.unit.service;
 
+import com.gardiyan.oms.cache.ProductCache;
+import com.gardiyan.oms.cache.SearchResultCache;
+import com.gardiyan.oms.dto.request.CursorRequest;
 import com.gardiyan.oms.dto.request.product.ProductCreateRequest;
 import com.gardiyan.oms.dto.request.product.ProductUpdateRequest;
+import com.gardiyan.oms.dto.response.CursorPage;
 import com.gardiyan.oms.dto.response.product.ProductDTO;
+import com.gardiyan.oms.dto.response.product.ProductFacetsDTO;
+import com.gardiyan.oms.dto.response.product.ProductSearchPage;
+import com.gardiyan.oms.dto.response.product.ProductSuggestionDTO;
+import com.gardiyan.oms.event.ProductChangedEvent;
 import com.gardiyan.oms.exception.InsufficientStockException;
 import com.gardiyan.oms.exception.ProductNotFoundException;
+import com.gardiyan.oms.inventory.StockManager;
 import com.gardiyan.oms.model.Product;
 import com.gardiyan.oms.repository.ProductRepository;
+import com.gardiyan.oms.repository.projection.ProductView;
+import com.gardiyan.oms.repository.spec.KeysetSpecification;
+import com.gardiyan.oms.search.ProductFacets;
+import com.gardiyan.oms.search.ProductFilterIndex;
+import com.gardiyan.oms.search.ProductSearchIndex;
+import com.gardiyan.oms.search.ProductSearchIndex.Hit;
+import com.gardiyan.oms.search.ProductSuggester;
 import com.gardiyan.oms.service.impl.ProductServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,10 +51,34 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private StockManager stockManager;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<ProductSearchIndex> searchIndex;
+
+    @Mock
+    private ObjectProvider<ProductSuggester> suggester;
+
+    @Mock
+    private ObjectProvider<ProductFilterIndex> filterIndex;
+
+    @Mock
+    private ObjectProvider<SearchResultCache> searchResults;
+
+    private final ProductFacets productFacets = new ProductFacets(
+        List.of(BigDecimal.valueOf(50), BigDecimal.valueOf(100)), 10);
+
     private ProductServiceImpl productService;
 
     private Product product;
+    private ProductView productView;
     private ProductDTO productDTO;
     private UUID productId;
     private ProductCreateRequest createRequest;
@@ -42,6 +86,12 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Built by hand: @InjectMocks matches constructor arguments by raw type and cannot tell the providers apart
+        productService = new ProductServiceImpl(productRepository, stockManager, productCache, eventPublisher,
+            productFacets, searchIndex, suggester, filterIndex, searchResults);
+        lenient().when(stockManager.available(any(), anyInt()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
+
         productId = UUID.randomUUID();
         
         product = new Product();
@@ -51,6 +101,9 @@ class ProductServiceTest {
         product.setPrice(BigDecimal.valueOf(100));
         product.setStockQuantity(10);
 
+        productView = new ProductView(productId, "Test Product", "Test Description", BigDecimal.valueOf(100), 10, 0,
+            LocalDateTime.now(), 0);
+
         productDTO = new ProductDTO();
         productDTO.setId(productId);
         productDTO.setName("Test Product");
@@ -89,7 +142,7 @@ class ProductServiceTest {
     @Test
     void getProductById_Success() {
         // Given
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.get(productId)).thenReturn(Optional.of(productView));
 
         // When
         ProductDTO result = productService.getProductById(productId);
@@ -97,40 +150,41 @@ class ProductServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(productId, result.getId());
-        verify(productRepository).findById(productId);
+        assertEquals(10, result.getStockQuantity());
+        verify(productCache).get(productId);
+        verify(productRepository, never()).findViewById(any());
+        verify(productRepository, never()).sumShards(any());
     }
 
     @Test
     void getProductById_NotFound_ThrowsException() {
         // Given
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productCache.get(productId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ProductNotFoundException.class,
             () -> productService.getProductById(productId));
-        verify(productRepository).findById(productId);
+        verify(productCache).get(productId);
     }
 
     @Test
     void getAllProducts_Success() {
         // Given
-        List<Product> products = List.of(product);
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(productView));
 
         // When
-        List<ProductDTO> result = productService.getAllProducts();
+        CursorPage<ProductDTO> result = productService.getAllProducts(CursorRequest.first(10));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(productRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void updateProduct_Success() {
         // Given
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
 
         // When
         ProductDTO result = productService.updateProduct(productId, updateRequest);
@@ -140,7 +194,23 @@ class ProductServiceTest {
         assertEquals(updateRequest.getName(), result.getName());
         assertEquals(updateRequest.getPrice(), result.getPrice());
         verify(productRepository).findById(productId);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
+        verify(eventPublisher).publishEvent(ProductChangedEvent.catalog(productId));
+    }
+
+    @Test
+    void updateProduct_Sharded_AdjustsFromLockedShardTotal() {
+        // Given
+        product.setStockShards(4);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+        when(productRepository.lockShardTotal(productId)).thenReturn(30);
+
+        // When
+        productService.updateProduct(productId, updateRequest);
+
+        // Then
+        verify(stockManager).adjust(productId, updateRequest.getStockQuantity() - 30);
     }
 
     @Test
@@ -152,7 +222,7 @@ class ProductServiceTest {
         assertThrows(ProductNotFoundException.class,
             () -> productService.updateProduct(productId, updateRequest));
         verify(productRepository).findById(productId);
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -167,6 +237,7 @@ class ProductServiceTest {
         // Then
         verify(productRepository).existsById(productId);
         verify(productRepository).deleteById(productId);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.catalog(productId));
     }
 
     @Test
@@ -184,8 +255,9 @@ class ProductServiceTest {
     @Test
     void updateStock_Success() {
         // Given
-        when(productRepository.findByIdWithLock(productId)).thenReturn(product);
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        product.setStockQuantity(15);
+        when(stockManager.adjust(productId, 5)).thenReturn(true);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
 
         // When
         ProductDTO result = productService.updateStock(productId, 5);
@@ -193,54 +265,238 @@ class ProductServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(15, result.getStockQuantity());
-        verify(productRepository).findByIdWithLock(productId);
-        verify(productRepository).save(any(Product.class));
+        verify(stockManager).adjust(productId, 5);
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
     void updateStock_InsufficientStock_ThrowsException() {
         // Given
-        when(productRepository.findByIdWithLock(productId)).thenReturn(product);
+        when(stockManager.adjust(productId, -15)).thenReturn(false);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
 
         // When & Then
         assertThrows(InsufficientStockException.class,
             () -> productService.updateStock(productId, -15));
-        verify(productRepository).findByIdWithLock(productId);
+        verify(stockManager).adjust(productId, -15);
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void updateStock_ProductNotFound_ThrowsException() {
+        // Given
+        when(stockManager.adjust(productId, -1)).thenReturn(false);
+        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class,
+            () -> productService.updateStock(productId, -1));
+    }
+
     @Test
     void getProductsInStock_Success() {
         // Given
-        List<Product> products = List.of(product);
-        when(productRepository.findByStockQuantityGreaterThan(0)).thenReturn(products);
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(productView));
+
+        // When
+        CursorPage<ProductDTO> result = productService.getProductsInStock(CursorRequest.first(10));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+    }
+
+    @Test
+    void getProductsInStock_FilterIndexReady_ReadsOnlyThePageRows() {
+        // Given
+        ProductFilterIndex index = mock(ProductFilterIndex.class);
+        ProductFilterIndex.Matches matches = mock(ProductFilterIndex.Matches.class);
+        when(filterIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(true);
+        when(index.match(null, null, 1)).thenReturn(matches);
+        when(index.list(matches, null, null, 2))
+            .thenReturn(List.of(new ProductFilterIndex.Entry(productId, productView.createdAt())));
+        when(productRepository.findViews(any(), eq(KeysetSpecification.ORDER), eq(1))).thenReturn(List.of(productView));
 
         // When
-        List<ProductDTO> result = productService.getProductsInStock();
+        CursorPage<ProductDTO> result = productService.getProductsInStock(CursorRequest.first(1));
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(productRepository).findByStockQuantityGreaterThan(0);
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+        verify(productRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void getProductsInStock_FilterIndexPageRowsAllGone_StillLeadsToNextPage() {
+        // Given: both listed products were deleted after the index listed them
+        ProductFilterIndex index = mock(ProductFilterIndex.class);
+        ProductFilterIndex.Matches matches = mock(ProductFilterIndex.Matches.class);
+        ProductFilterIndex.Entry gone = new ProductFilterIndex.Entry(UUID.randomUUID(), LocalDateTime.of(2024, 1, 1, 0, 0));
+        ProductFilterIndex.Entry next = new ProductFilterIndex.Entry(UUID.randomUUID(), LocalDateTime.of(2024, 1, 2, 0, 0));
+        when(filterIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(true);
+        when(index.match(null, null, 1)).thenReturn(matches);
+        when(index.list(matches, null, null, 2)).thenReturn(List.of(gone, next));
+        when(index.list(matches, gone.createdAt(), gone.id(), 2)).thenReturn(List.of(next));
+        when(productRepository.findViews(any(), eq(KeysetSpecification.ORDER), eq(1))).thenReturn(List.of());
+
+        // When
+        CursorPage<ProductDTO> first = productService.getProductsInStock(CursorRequest.first(1));
+        CursorPage<ProductDTO> second = productService.getProductsInStock(CursorRequest.after(first.getNextCursor(), 1));
+
+        // Then
+        assertTrue(first.getItems().isEmpty());
+        assertNotNull(first.getNextCursor());
+        assertNull(second.getNextCursor());
     }
 
     @Test
     void searchProducts_Success() {
         // Given
-        List<Product> products = List.of(product);
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(productView));
 
         // When
-        List<ProductDTO> result = productService.searchProducts(
+        CursorPage<ProductDTO> result = productService.searchProducts(
+            null,
             "Test",
             BigDecimal.valueOf(50),
             BigDecimal.valueOf(200),
-            5
+            5,
+            false,
+            CursorRequest.first(10)
         );
 
         // Then
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(productRepository).findAll(any(Specification.class));
+        assertEquals(1, result.getItems().size());
+        verify(productRepository).findViews(any(Specification.class), eq(KeysetSpecification.ORDER), eq(11));
+        verify(productRepository, never()).countEach(any(), any());
+    }
+
+    @Test
+    void searchProducts_WithFacets_CountsEveryBandInOneQuery() {
+        // Given
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(productView));
+        when(productRepository.countEach(any(), eq(productFacets.bands()))).thenReturn(new long[]{2, 5, 1, 0, 3, 5});
+
+        // When
+        ProductSearchPage result = productService.searchProducts(null, "Test", null, null, null, true,
+            CursorRequest.first(10));
+
+        // Then
+        ProductFacetsDTO facets = result.getFacets();
+        assertEquals(List.of(
+            new ProductFacetsDTO.PriceBand(null, BigDecimal.valueOf(50), 2),
+            new ProductFacetsDTO.PriceBand(BigDecimal.valueOf(50), BigDecimal.valueOf(100), 5),
+            new ProductFacetsDTO.PriceBand(BigDecimal.valueOf(100), null, 1)), facets.getPriceBands());
+        assertEquals(0, facets.getOutOfStock());
+        assertEquals(3, facets.getLowStock());
+        assertEquals(5, facets.getPlentyStock());
+        verify(productRepository, times(1)).countEach(any(), any());
+    }
+
+    @Test
+    void searchProducts_PriceAndStockOnly_CountedInFilterIndex() {
+        // Given
+        ProductFilterIndex index = mock(ProductFilterIndex.class);
+        ProductFilterIndex.Matches matches = mock(ProductFilterIndex.Matches.class);
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        when(filterIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(true);
+        when(index.match(BigDecimal.valueOf(50), null, 5)).thenReturn(matches);
+        when(index.list(matches, null, null, 11)).thenReturn(List.of());
+        when(index.facets(matches)).thenReturn(facets);
+        when(matches.count()).thenReturn(0L);
+        CursorRequest page = CursorRequest.first(10);
+        page.setCount(true);
+
+        // When
+        ProductSearchPage result = productService.searchProducts(null, null, BigDecimal.valueOf(50), null, 5, true,
+            page);
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertEquals(0L, result.getTotalCount());
+        assertSame(facets, result.getFacets());
+        verify(productRepository, never()).findViews(any(), any(Sort.class), anyInt());
+        verify(productRepository, never()).countEach(any(), any());
+    }
+
+    @Test
+    void searchProducts_WithQuery_RankedByIndexAndFilteredInDatabase() {
+        // Given
+        ProductSearchIndex index = mock(ProductSearchIndex.class);
+        UUID outOfStockId = UUID.randomUUID();
+        when(searchIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(true);
+        when(index.search(eq("test"), isNull(), isNull(), isNull(), eq(2)))
+            .thenReturn(List.of(new Hit(outOfStockId, 3f), new Hit(productId, 2f)));
+        // The next batch of candidates is twice as large
+        when(index.search(eq("test"), isNull(), isNull(), notNull(), eq(4))).thenReturn(List.of());
+        when(productRepository.findViews(any(), any(Sort.class), eq(2))).thenReturn(List.of(productView));
+
+        // When
+        CursorPage<ProductDTO> result = productService.searchProducts("test", null, null, null, 5, false,
+            CursorRequest.first(1));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(productId, result.getItems().get(0).getId());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void searchProducts_IndexNotReady_FallsBackToDatabase() {
+        // Given
+        ProductSearchIndex index = mock(ProductSearchIndex.class);
+        when(searchIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(false);
+        when(productRepository.findViews(any(), any(Sort.class), anyInt())).thenReturn(List.of(productView));
+
+        // When
+        CursorPage<ProductDTO> result = productService.searchProducts("test", null, null, null, null, false,
+            CursorRequest.first(10));
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        verify(index, never()).search(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void suggestProducts_SuggesterReady_AnsweredWithoutDatabase() {
+        // Given
+        ProductSuggester ranked = mock(ProductSuggester.class);
+        when(suggester.getIfAvailable()).thenReturn(ranked);
+        when(ranked.isReady()).thenReturn(true);
+        when(ranked.suggest("tes", 5)).thenReturn(List.of(new ProductSuggester.Suggestion(productId, "Test Product")));
+
+        // When
+        List<ProductSuggestionDTO> result = productService.suggestProducts("tes", 5);
+
+        // Then
+        assertEquals(List.of(new ProductSuggestionDTO(productId, "Test Product")), result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void suggestProducts_SuggesterNotReady_FallsBackToDatabase() {
+        // Given
+        ProductSuggester ranked = mock(ProductSuggester.class);
+        when(suggester.getIfAvailable()).thenReturn(ranked);
+        when(ranked.isReady()).thenReturn(false);
+        when(productRepository.findViews(any(), eq(Sort.by("name")), eq(5))).thenReturn(List.of(productView));
+
+        // When
+        List<ProductSuggestionDTO> result = productService.suggestProducts("tes", 5);
+
+        // Then
+        assertEquals(List.of(new ProductSuggestionDTO(productId, "Test Product")), result);
+        verify(ranked, never()).suggest(any(), anyInt());
+    }
+
+    @Test
+    void suggestProducts_LimitOutOfRange_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.suggestProducts("tes", ProductSuggester.MAX_RESULTS + 1));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,192 @@
+package com.gardiyan.oms.unit.service;
+
+import com.gardiyan.oms.event.ProductChangedEvent;
+import com.gardiyan.oms.service.impl.SingleFlight;
+import com.gardiyan.oms.service.impl.SingleFlight.Table;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry, 100);
+    }
+
+    @Test
+    void execute_ConcurrentIdenticalCalls_RunOnceAndShareResult() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> read = () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "product";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<String> first = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            awaitCount("collapsed", 1);
+            release.countDown();
+
+            // Then
+            assertEquals("product", first.get(5, TimeUnit.SECONDS));
+            assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_CallAfterCommittedWrite_StartsNewFlight() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Integer> read = () -> {
+            int call = calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return call;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<Integer> first = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            singleFlight.onProductChanged(ProductChangedEvent.of(UUID.randomUUID()));
+            Future<Integer> second = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            awaitCount("executed", 2);
+            release.countDown();
+
+            // Then
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(2, second.get(5, TimeUnit.SECONDS));
+            assertEquals(0.0, count("collapsed"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_LeaderFails_FollowerGetsSameException() throws Exception {
+        // Given
+        IllegalStateException failure = new IllegalStateException("lookup failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> read = () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<String> first = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(
+                () -> singleFlight.execute(read, Table.PRODUCTS, "getProductById", 1));
+            awaitCount("collapsed", 1);
+            release.countDown();
+
+            // Then
+            ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertSame(failure, firstFailure.getCause());
+            assertSame(failure, secondFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_SequentialCalls_NothingRetained() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        singleFlight.execute(calls::incrementAndGet, Table.PRODUCTS, "getProductById", 1);
+        int second = singleFlight.execute(calls::incrementAndGet, Table.PRODUCTS, "getProductById", 1);
+
+        // Then
+        assertEquals(2, second);
+        assertEquals(2.0, count("executed"));
+    }
+
+    @Test
+    void execute_DifferentArguments_NotCollapsed() {
+        // When
+        String first = singleFlight.execute(() -> "a", Table.PRODUCTS, "searchProducts", "phone", null);
+        String second = singleFlight.execute(() -> "b", Table.PRODUCTS, "searchProducts", "tablet", null);
+
+        // Then
+        assertEquals("a", first);
+        assertEquals("b", second);
+        assertEquals(0.0, count("collapsed"));
+    }
+
+    @Test
+    void execute_InFlightTableFull_Bypasses() {
+        // Given
+        SingleFlight full = new SingleFlight(meterRegistry, 0);
+
+        // When
+        String result = full.execute(() -> "product", Table.PRODUCTS, "getProductById", 1);
+
+        // Then
+        assertEquals("product", result);
+        assertEquals(1.0, count("bypassed"));
+        assertEquals(0.0, count("executed"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("oms.single-flight.calls", "result", result).count();
+    }
+
+    private void awaitCount(String result, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(result) < expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + result + " calls");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}